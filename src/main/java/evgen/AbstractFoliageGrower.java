@@ -1,72 +1,130 @@
 package evgen;
 
-import java.util.HashSet;
-import java.util.Random;
-import java.util.Set;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.random.RandomGenerator;
 
+import evgen.lib.IntRandomSet;
 import evgen.lib.Pair;
-import evgen.lib.RandomSet;
 
+/**
+ * Base of foliage growers. Spots are tracked as cell indices ({@code y * width + x}),
+ * same as in the map's grid storage.
+ */
 public abstract class AbstractFoliageGrower implements IFoliageGrower {
-    protected final Random rng;
+    protected final RandomGenerator rng;
     protected final Settings settings;
     protected final IWorldMap map;
     protected final int preferredSpotAmount;
-    protected Set<Vector2d> preferredSpots = new HashSet<>();
+    protected final int width;
+    protected final IntRandomSet preferredSpots;
 
-    protected RandomSet<Vector2d> availableRegularSpots = new RandomSet<>();
-    protected RandomSet<Vector2d> availablePreferredSpots = new RandomSet<>();
+    protected final IntRandomSet availableRegularSpots;
+    protected final IntRandomSet availablePreferredSpots;
 
     protected abstract void setupPreferredSpots();
 
-    public AbstractFoliageGrower(Random r, Settings s, IWorldMap m) {
+    public AbstractFoliageGrower(RandomGenerator r, Settings s, IWorldMap m) {
         rng = r;
         settings = s;
         map = m;
         preferredSpotAmount = settings.getMapHeight() * settings.getMapWidth() / 5;
         final Pair<Vector2d, Vector2d> bounds = m.getMapBounds();
-        for (int x = bounds.first.x; x <= bounds.second.x; ++x) {
-            for (int y = bounds.first.y; y <= bounds.second.y; ++y) {
-                availableRegularSpots.add(new Vector2d(x, y));
+        width = bounds.second.x - bounds.first.x + 1;
+        final int cellCount = width * (bounds.second.y - bounds.first.y + 1);
+        preferredSpots = new IntRandomSet(cellCount);
+        availableRegularSpots = new IntRandomSet(cellCount);
+        availablePreferredSpots = new IntRandomSet(cellCount);
+
+        setupPreferredSpots();
+
+        for (int cell = 0; cell < cellCount; ++cell) {
+            if (preferredSpots.contains(cell)) {
+                availablePreferredSpots.add(cell);
+            } else {
+                availableRegularSpots.add(cell);
             }
         }
+    }
 
-        setupPreferredSpots();
+    /**
+     * Get index of cell at given position
+     * @param pos
+     * @return cell index
+     */
+    protected int toCell(Vector2d pos) {
+        return pos.y * width + pos.x;
+    }
 
-        availablePreferredSpots.addAll(preferredSpots);
-        availableRegularSpots.removeAll(preferredSpots);
+    /**
+     * Get position of cell with given index
+     * @param cell
+     * @return position
+     */
+    protected Vector2d toPosition(int cell) {
+        return new Vector2d(cell % width, cell / width);
     }
 
     public int getFreeSpotsCount() {
-//        System.out.println("map size: " + settings.getMapWidth() * settings.getMapHeight() + ", available regular spots: " + availableRegularSpots.size() + ", available preferred spots: " + availablePreferredSpots.size());
         return availableRegularSpots.size() + availablePreferredSpots.size();
     }
 
     @Override
-    public Vector2d getPlantSpot() {
-        Vector2d rv = null;
+    public int getPlantCell() {
         // 80% chance that a plant will grow at a preferred spot
         if (rng.nextInt(5) != 0 && availablePreferredSpots.size() > 0) {
-            rv = availablePreferredSpots.pollRandom(rng);
-        } else if (availableRegularSpots.size() > 0) {
-            rv = availableRegularSpots.pollRandom(rng);
+            return availablePreferredSpots.pollRandom(rng);
         }
-        return rv;
+        return availableRegularSpots.pollRandom(rng);
     }
 
     @Override
-    public void plantEaten(Vector2d pos) {
-        if (preferredSpots.contains(pos)) {
-            assert !availablePreferredSpots.contains(pos);
-            availablePreferredSpots.add(pos);
+    public int getPlantCells(int amount, int[] out) {
+        final int preferred = IFoliageGrower.drawPreferredAmount(rng, amount);
+        // Plants which found no free preferred spot fall back to regular ones
+        final int grown = availablePreferredSpots.pollRandom(rng, preferred, out, 0);
+        return grown + availableRegularSpots.pollRandom(rng, amount - grown, out, grown);
+    }
+
+    @Override
+    public Vector2d getPlantSpot() {
+        final int cell = getPlantCell();
+        return (cell == -1) ? null : toPosition(cell);
+    }
+
+    @Override
+    public void plantEaten(int cell) {
+        if (preferredSpots.contains(cell)) {
+            assert !availablePreferredSpots.contains(cell);
+            availablePreferredSpots.add(cell);
         } else {
-            assert !availableRegularSpots.contains(pos);
-            availableRegularSpots.add(pos);
+            assert !availableRegularSpots.contains(cell);
+            availableRegularSpots.add(cell);
         }
     }
 
+    @Override
+    public void plantEaten(Vector2d pos) {
+        plantEaten(toCell(pos));
+    }
+
     @Override
     public boolean isPreferred(Vector2d pos) {
-        return preferredSpots.contains(pos);
+        return preferredSpots.contains(toCell(pos));
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        preferredSpots.writeTo(out);
+        availableRegularSpots.writeTo(out);
+        availablePreferredSpots.writeTo(out);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        preferredSpots.readFrom(in);
+        availableRegularSpots.readFrom(in);
+        availablePreferredSpots.readFrom(in);
     }
 }
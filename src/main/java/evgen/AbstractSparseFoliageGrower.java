@@ -0,0 +1,209 @@
+package evgen;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.random.RandomGenerator;
+
+import evgen.lib.Pair;
+import evgen.lib.SparseIntRandomSet;
+
+/**
+ * Base of foliage growers for large worlds. Only cells holding plants are stored,
+ * so memory is proportional to the amount of plants rather than to the map's area.
+ * Free spots are found by rejection sampling: random cells of the wanted kind are drawn
+ * until one without a plant comes up, which is quick as long as the map is not nearly overgrown.
+ * Cells are indexed as in {@link AbstractFoliageGrower}.
+ */
+public abstract class AbstractSparseFoliageGrower implements IFoliageGrower {
+    // Draws before falling back to scanning the map for a free spot
+    private static final int MAX_SAMPLING_TRIES = 64;
+
+    protected final RandomGenerator rng;
+    protected final Settings settings;
+    protected final IWorldMap map;
+    protected final int preferredSpotAmount;
+    protected final int width;
+    protected final int cellCount;
+
+    private final SparseIntRandomSet plantedSpots = new SparseIntRandomSet();
+    private int plantedPreferredSpots = 0;
+
+    /**
+     * Check whether a cell is preferred
+     * @param cell cell index
+     * @return true if preferred, false otherwise
+     */
+    protected abstract boolean isPreferredCell(int cell);
+
+    /**
+     * Get current amount of preferred cells
+     * @return preferred cell count
+     */
+    protected abstract int getPreferredCount();
+
+    /**
+     * Draw a preferred cell, uniformly, whether or not it has a plant
+     * @return cell index
+     */
+    protected abstract int randomPreferredCell();
+
+    /**
+     * Draw a regular (not preferred) cell, uniformly, whether or not it has a plant
+     * @return cell index
+     */
+    protected abstract int randomRegularCell();
+
+    /**
+     * Get amount of cells enumerated by {@link #candidateCell(boolean, int)}
+     * @param preferred kind of cells
+     * @return candidate count, positive while any cell of that kind exists
+     */
+    protected abstract int getCandidateCount(boolean preferred);
+
+    /**
+     * Enumerate cells which may be of a given kind, in an order fixed until preferences change.
+     * Must include every cell of that kind; other cells are skipped by the caller
+     * @param preferred kind of cells
+     * @param i index, 0 to {@link #getCandidateCount(boolean)} - 1
+     * @return cell index
+     */
+    protected abstract int candidateCell(boolean preferred, int i);
+
+    public AbstractSparseFoliageGrower(RandomGenerator r, Settings s, IWorldMap m) {
+        rng = r;
+        settings = s;
+        map = m;
+        preferredSpotAmount = settings.getMapHeight() * settings.getMapWidth() / 5;
+        final Pair<Vector2d, Vector2d> bounds = m.getMapBounds();
+        width = bounds.second.x - bounds.first.x + 1;
+        cellCount = width * (bounds.second.y - bounds.first.y + 1);
+    }
+
+    // PRIVATE METHODS
+    private int getFreePreferredCount() {
+        return getPreferredCount() - plantedPreferredSpots;
+    }
+
+    private int getFreeRegularCount() {
+        return (cellCount - getPreferredCount()) - (plantedSpots.size() - plantedPreferredSpots);
+    }
+
+    private int findFreeCell(boolean preferred) {
+        for (int i = 0; i < MAX_SAMPLING_TRIES; ++i) {
+            final int cell = preferred ? randomPreferredCell() : randomRegularCell();
+            if (!plantedSpots.contains(cell)) {
+                return cell;
+            }
+        }
+        // Nearly overgrown, look through the candidates instead, starting at a random one
+        final int count = getCandidateCount(preferred);
+        final int start = rng.nextInt(count);
+        for (int i = 0; i < count; ++i) {
+            final int cell = candidateCell(preferred, (start + i) % count);
+            if (isPreferredCell(cell) == preferred && !plantedSpots.contains(cell)) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    private int plantAt(int cell) {
+        plantedSpots.add(cell);
+        if (isPreferredCell(cell)) {
+            ++plantedPreferredSpots;
+        }
+        return cell;
+    }
+
+    // PROTECTED METHODS
+    /**
+     * Must be called by subclasses whenever a cell becomes preferred or stops being preferred
+     * @param cell cell index
+     * @param preferred whether the cell is preferred now
+     */
+    protected void preferenceChanged(int cell, boolean preferred) {
+        if (plantedSpots.contains(cell)) {
+            plantedPreferredSpots += preferred ? 1 : -1;
+        }
+    }
+
+    protected int toCell(Vector2d pos) {
+        return pos.y * width + pos.x;
+    }
+
+    protected Vector2d toPosition(int cell) {
+        return new Vector2d(cell % width, cell / width);
+    }
+
+    // PUBLIC METHODS
+    public int getFreeSpotsCount() {
+        return cellCount - plantedSpots.size();
+    }
+
+    @Override
+    public int getPlantCell() {
+        // 80% chance that a plant will grow at a preferred spot
+        if (rng.nextInt(5) != 0 && getFreePreferredCount() > 0) {
+            return plantAt(findFreeCell(true));
+        }
+        return (getFreeRegularCount() > 0) ? plantAt(findFreeCell(false)) : -1;
+    }
+
+    @Override
+    public int getPlantCells(int amount, int[] out) {
+        // Plants which found no free preferred spot fall back to regular ones
+        final int preferred = Math.min(IFoliageGrower.drawPreferredAmount(rng, amount), getFreePreferredCount());
+        int grown = 0;
+        while (grown < preferred) {
+            out[grown++] = plantAt(findFreeCell(true));
+        }
+        final int regular = Math.min(amount - grown, getFreeRegularCount());
+        for (int i = 0; i < regular; ++i) {
+            out[grown++] = plantAt(findFreeCell(false));
+        }
+        return grown;
+    }
+
+    @Override
+    public Vector2d getPlantSpot() {
+        final int cell = getPlantCell();
+        return (cell == -1) ? null : toPosition(cell);
+    }
+
+    @Override
+    public void plantEaten(int cell) {
+        final boolean rc = plantedSpots.remove(cell);
+        assert rc;
+        if (isPreferredCell(cell)) {
+            --plantedPreferredSpots;
+        }
+    }
+
+    @Override
+    public void plantEaten(Vector2d pos) {
+        plantEaten(toCell(pos));
+    }
+
+    @Override
+    public void animalDiedAt(Vector2d pos) {
+        animalDiedAt(toCell(pos));
+    }
+
+    @Override
+    public boolean isPreferred(Vector2d pos) {
+        return isPreferredCell(toCell(pos));
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        plantedSpots.writeTo(out);
+        out.writeInt(plantedPreferredSpots);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        plantedSpots.readFrom(in);
+        plantedPreferredSpots = in.readInt();
+    }
+}
@@ -1,15 +1,39 @@
 package evgen;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.random.RandomGenerator;
 
+import evgen.lib.IntList;
 import evgen.lib.Pair;
+import evgen.lib.SplitMix64;
 
 public abstract class AbstractWorldMap implements IWorldMap {
+    // Result of resolveMove for moves through a portal
+    protected static final int PORTAL = -1;
+    // Edge classes of a coordinate -- inside the map, at its lower edge, at its upper edge, at both (map one cell wide)
+    private static final int EDGE_NONE = 0;
+    private static final int EDGE_LOW = 1;
+    private static final int EDGE_HIGH = 2;
+    private static final int EDGE_BOTH = 3;
+    private static final int EDGE_CLASSES = 4;
+    // Checkpoint file header
+    private static final int CHECKPOINT_MAGIC = 0x45564743;
+    private static final int CHECKPOINT_VERSION = 1;
+
     // PROTECTED ATTRIBUTES
     protected final Vector2d boundaryLowerLeft;
     protected final Vector2d boundaryUpperRight;
 
-    protected final Random rng;
+    protected final RandomGenerator rng;
     protected final Settings settings;
     protected final MapVisualizer mapVis;
     protected final IFoliageGrower foliageGen;
@@ -19,65 +43,139 @@ public abstract class AbstractWorldMap implements IWorldMap {
     protected int epoch = 0;
     // Can have multiple animals at same spot, but only one plant
     protected Map<Integer, Animal> animalsByID = new HashMap<>();
-    protected Map<Vector2d, TreeSet<Animal>> animals = new HashMap<>();
-    protected Map<Vector2d, IMapElement> foliage = new HashMap<>();
+    // State of all animals created for this map
+    protected final AnimalStore animalStore = new AnimalStore();
+    // Genomes of all animals created for this map
+    protected final GenomePool genomePool = new GenomePool();
+    protected final IGridStorage grid;
 
     protected List<Animal> markedForDelete = new LinkedList<>();
 
+    private ParallelEpochEngine parallelEngine = null;
+    private final IntList cellsToFeed = new IntList();
+    private final IntList deadSlots = new IntList();
+    private int[] plantCells = new int[0];
+
+    // Movement table, indexed by edge classes of the animal's cell and its facing
+    private final int[] moveDx = new int[EDGE_CLASSES * EDGE_CLASSES * MapDirection.directionCount];
+    private final int[] moveDy = new int[EDGE_CLASSES * EDGE_CLASSES * MapDirection.directionCount];
+    private final int[] moveDir = new int[EDGE_CLASSES * EDGE_CLASSES * MapDirection.directionCount];
+    private final boolean[] movePortal = new boolean[EDGE_CLASSES * EDGE_CLASSES * MapDirection.directionCount];
+
     // PRIVATE METHODS
-    private AbstractWorldMap(Random r, Settings s, StatTracker st, IFoliageGrower f, boolean useDefaultGrowers) {
+    private AbstractWorldMap(RandomGenerator r, Settings s, StatTracker st, IFoliageGrower f, boolean useDefaultGrowers) {
         rng = r;
         settings = s;
         statTracker = st;
         boundaryLowerLeft = new Vector2d(0, 0);
         boundaryUpperRight = new Vector2d(settings.getMapWidth()-1, settings.getMapHeight()-1);
+        if (settings.getWorldSizeType() == Settings.WorldSizeType.LARGE) {
+            grid = new ChunkedGridStorage(settings.getMapWidth(), settings.getMapHeight());
+        } else {
+            grid = new GridStorage(settings.getMapWidth(), settings.getMapHeight());
+        }
         if (useDefaultGrowers) {
-            foliageGen = (s.getFoliageGrowthType() == Settings.FoliageGrowthType.EQUATOR) ? new EquatorialGrower(r, s, this) : new ToxicCorpsesGrower(r, s, this);
+            final boolean equator = s.getFoliageGrowthType() == Settings.FoliageGrowthType.EQUATOR;
+            if (s.getWorldSizeType() == Settings.WorldSizeType.LARGE) {
+                foliageGen = equator ? new SparseEquatorialGrower(r, s, this) : new SparseToxicCorpsesGrower(r, s, this);
+            } else {
+                foliageGen = equator ? new EquatorialGrower(r, s, this) : new ToxicCorpsesGrower(r, s, this);
+            }
         } else {
             foliageGen = f;
         }
         mapVis = new MapVisualizer(this, foliageGen);
-        initAnimalStructures();
+        fillMoveTable();
         growFoliage(settings.getStartingFoliage());
     }
 
-    private void initAnimalStructures() {
-        for (int x = boundaryLowerLeft.x; x <= boundaryUpperRight.x; ++x) {
-            for (int y = boundaryLowerLeft.y; y <= boundaryUpperRight.y; ++y) {
-                animals.put(new Vector2d(x, y), new TreeSet<>());
+    private static int edgeClass(int v, int low, int high) {
+        return ((v == low) ? EDGE_LOW : EDGE_NONE) | ((v == high) ? EDGE_HIGH : EDGE_NONE);
+    }
+
+    /**
+     * Get a coordinate of given edge class
+     * @return coordinate, -1 if the map has no such coordinates
+     */
+    private static int edgeClassRepresentative(int edgeClass, int low, int high) {
+        return switch (edgeClass) {
+            case EDGE_NONE -> (high - low >= 2) ? low + 1 : -1;
+            case EDGE_LOW -> (high > low) ? low : -1;
+            case EDGE_HIGH -> (high > low) ? high : -1;
+            default -> (high == low) ? low : -1;
+        };
+    }
+
+    private static int moveTableIndex(int xClass, int yClass, int facing) {
+        return (((yClass * EDGE_CLASSES) + xClass) * MapDirection.directionCount) + facing;
+    }
+
+    private void fillMoveTable() {
+        // Moves are the same for all cells of an edge class, up to translation, so one cell per class will do
+        for (int yClass = 0; yClass < EDGE_CLASSES; ++yClass) {
+            final int y = edgeClassRepresentative(yClass, boundaryLowerLeft.y, boundaryUpperRight.y);
+            for (int xClass = 0; xClass < EDGE_CLASSES; ++xClass) {
+                final int x = edgeClassRepresentative(xClass, boundaryLowerLeft.x, boundaryUpperRight.x);
+                if (x == -1 || y == -1) {
+                    continue;
+                }
+                for (int f = 0; f < MapDirection.directionCount; ++f) {
+                    final int i = moveTableIndex(xClass, yClass, f);
+                    final int target = resolveMove(x, y, MapDirection.fromInt(f));
+                    movePortal[i] = target == PORTAL;
+                    if (!movePortal[i]) {
+                        moveDx[i] = moveX(target) - x;
+                        moveDy[i] = moveY(target) - y;
+                        moveDir[i] = moveFacing(target);
+                    }
+                }
             }
         }
     }
 
-    private void addAnimalToMap(Vector2d pos, Animal animal) {
-        boolean rc = animals.get(pos).add(animal);
+    private int resolvePackedMove(Animal a, int x, int y, int facing) {
+        final int i = moveTableIndex(edgeClass(x, boundaryLowerLeft.x, boundaryUpperRight.x),
+                                     edgeClass(y, boundaryLowerLeft.y, boundaryUpperRight.y), facing);
+        if (movePortal[i]) {
+            return portalMove(a);
+        }
+        return packMove(x + moveDx[i], y + moveDy[i], moveDir[i]);
+    }
+
+    private void addAnimalToMap(int cell, Animal animal) {
+        boolean rc = grid.addAnimal(cell, animal);
         assert rc;
-        assert animals.get(pos).contains(animal);
+        assert grid.containsAnimal(cell, animal);
     }
 
-    private void removeAnimalFromMap(Vector2d pos, Animal animal) {
-        assert animals.get(pos).contains(animal);
-        final boolean rc = animals.get(pos).remove(animal);
+    private void removeAnimalFromMap(int cell, Animal animal) {
+        assert grid.containsAnimal(cell, animal);
+        final boolean rc = grid.removeAnimal(cell, animal);
         assert rc;
-        assert !animals.get(pos).contains(animal);
+        assert !grid.containsAnimal(cell, animal);
     }
 
     private void removeAnimalFromMap(Animal animal) {
-        removeAnimalFromMap(animal.getPosition(), animal);
+        removeAnimalFromMap(grid.toIndex(animal.getX(), animal.getY()), animal);
     }
 
-    protected void markForDelete(Animal a) {
+    protected synchronized void markForDelete(Animal a) {
         markedForDelete.add(a);
     }
 
     private void deleteMarked() {
+        // Deaths reach the foliage grower, so handle them in an order independent of thread count
+        markedForDelete.sort(Comparator.comparingInt(Animal::getID));
         for (Animal a : markedForDelete) {
-            Debug.println((String.format("Animal with id %d dies", a.getID())));
+            if (Debug.isEnabled(Debug.Category.DEATH, Debug.Level.INFO)) {
+                Debug.println(String.format("Animal with id %d dies", a.getID()));
+            }
             removeAnimalFromMap(a);
             Object o = animalsByID.remove(a.getID());
             assert o.equals(a);
-            foliageGen.animalDiedAt(a.getPosition());
+            foliageGen.animalDiedAt(grid.toIndex(a.getX(), a.getY()));
             a.death();
+            a.detach();
             a = null;
         }
         markedForDelete.clear();
@@ -92,72 +190,219 @@ public abstract class AbstractWorldMap implements IWorldMap {
         deleteMarked();
     }
 
+    /**
+     * Resolve a move from given position in given direction according to map rules, without side effects.
+     * Only called from the constructor, to fill the movement table, so it may only rely on map boundaries.
+     * @param x
+     * @param y
+     * @param dir direction the animal faces
+     * @return packed target position and direction (see {@link #packMove(int, int, int)}), PORTAL if the animal leaves through a portal
+     */
+    protected abstract int resolveMove(int x, int y, MapDirection dir);
+
+    /**
+     * Move an animal through a portal, with all side effects.
+     * Only called for moves which {@link #resolveMove(int, int, MapDirection)} resolved to PORTAL
+     * @param a animal to move
+     * @return packed target position and direction
+     */
+    protected abstract int portalMove(Animal a);
+
+    /**
+     * Get target position and direction of an animal which is about to move,
+     * according to its genome and map constraints. Allocation-free counterpart of {@link #getMoveTarget(Animal)}
+     * @param a animal to move
+     * @return packed target position and direction, see {@link #moveX(int)}, {@link #moveY(int)}, {@link #moveFacing(int)}
+     */
+    protected int getPackedMoveTarget(Animal a) {
+        return resolvePackedMove(a, a.getX(), a.getY(), a.getFacing().facing);
+    }
+
     /**
      * Get target position and direction of an animal which is about to move,
      * according to its genome and map constraints
      * @param a animal to move
      * @return pair containing target position and direction, in that order
      */
-    protected abstract Pair<Vector2d, MapDirection> getMoveTarget(Animal a);
+    public Pair<Vector2d, MapDirection> getMoveTarget(Animal a) {
+        final Vector2d pos = a.getPosition();
+        final int target = resolvePackedMove(a, pos.x, pos.y, a.getFacing().facing);
+        return new Pair<>(new Vector2d(moveX(target), moveY(target)), MapDirection.fromInt(moveFacing(target)));
+    }
+
+    /**
+     * Pack target position and direction of a move into an int
+     * (x in bits 17-30, y in bits 3-16, direction in bits 0-2)
+     * @param x
+     * @param y
+     * @param facing direction as int
+     * @return packed move target
+     */
+    protected static int packMove(int x, int y, int facing) {
+        return (x << 17) | (y << 3) | facing;
+    }
+
+    public static int moveX(int packedTarget) {
+        return packedTarget >>> 17;
+    }
+
+    public static int moveY(int packedTarget) {
+        return (packedTarget >>> 3) & 0x3FFF;
+    }
+
+    public static int moveFacing(int packedTarget) {
+        return packedTarget & 0x7;
+    }
 
     private void moveAll() {
-        for (Animal a : animalsByID.values()) {
+        if (parallelEngine != null) {
+            parallelEngine.moveAll();
+            deleteMarked();
+            return;
+        }
+        // Sweep over store slots
+        final int slots = animalStore.getSlotCount();
+        for (int slot = 0; slot < slots; ++slot) {
+            final Animal a = animalStore.viewAt(slot);
+            if (a == null) {
+                continue;
+            }
+            final int from = grid.toIndex(a.getX(), a.getY());
             assert a.isAlive();
-            assert animals.get(a.getPosition()).contains(a) : String.format("moveAll detected desync between animal pos and set, a=%s, s=%s", a, animals.get(a.getPosition()));
+            assert grid.containsAnimal(from, a) : String.format("moveAll detected desync between animal pos and set, a=%s, s=%s", a, grid.animalsAt(from));
             a.updateFacing();
-            removeAnimalFromMap(a.getPosition(), a);
-            Pair<Vector2d, MapDirection> target = getMoveTarget(a);
-            a.move(target);
-            addAnimalToMap(target.first, a);
+            removeAnimalFromMap(from, a);
+            final int target = getPackedMoveTarget(a);
+            a.move(moveX(target), moveY(target), moveFacing(target));
+            addAnimalToMap(grid.toIndex(moveX(target), moveY(target)), a);
         }
         deleteMarked();
     }
 
     private void feedAndProcreateAll() {
-        for (Vector2d spot : animals.keySet()) {
-            TreeSet<Animal> s = animals.get(spot);
-            // Feed strongest from spot
-            if (s.size() > 0 && foliage.get(spot) != null) {
-                Animal strongest = s.pollFirst();
-                strongest.eat();
-                s.add(strongest);
-                foliage.remove(spot);
-                foliageGen.plantEaten(spot);
+        if (parallelEngine != null) {
+            parallelEngine.feedAndProcreateAll();
+            return;
+        }
+        // Visit cells in ascending order, same as the parallel engine does for any amount of bands
+        cellsToFeed.clear();
+        for (int i = 0; i < grid.getOccupiedCount(); ++i) {
+            cellsToFeed.add(grid.getOccupiedCell(i));
+        }
+        cellsToFeed.sort();
+        for (int i = 0; i < cellsToFeed.size(); ++i) {
+            final int cell = cellsToFeed.get(i);
+            final CellAnimals s = grid.animalsAt(cell);
+            // Feed strongest from spot; eating only makes it stronger, so it stays in place
+            if (grid.hasPlant(cell)) {
+                s.first().eat();
+                grid.removePlant(cell);
+                foliageGen.plantEaten(cell);
             }
             // Allow procreation of two strongest from spot
             if (s.size() > 1) {
-                Animal first = s.pollFirst();
-                Animal second = s.pollFirst();
-                
+                Animal first = s.first();
+                Animal second = s.second();
+
                 // Second one cannot have more energy than first
-                assert first.getEnergy() >= second.getEnergy() : "Second has more energy than first" + String.format("c=%s s=%s m.p1.e=%d m.p2.e=%d ", spot.toString(), s, first.getEnergy(), second.getEnergy());
+                assert first.getEnergy() >= second.getEnergy() : "Second has more energy than first" + String.format("c=%s s=%s m.p1.e=%d m.p2.e=%d ", grid.toPosition(cell), s, first.getEnergy(), second.getEnergy());
                 if (second.canProcreate()) {
-                    Debug.print(String.format("procreation c=%s s=%s ", spot.toString(), s));
+                    procreate(s, first, second);
+                }
+            }
+        }
+    }
+
+    /**
+     * Let two strongest animals of a cell procreate, then put them back in order along with their child
+     * @param s animals at the parents' cell
+     * @param first stronger parent
+     * @param second weaker parent
+     */
+    void procreate(CellAnimals s, Animal first, Animal second) {
+        final boolean trace = Debug.isEnabled(Debug.Category.BIRTH, Debug.Level.TRACE);
+        if (trace) {
+            Debug.print(String.format("procreation c=%s s=%s ", first.getPosition(), s));
+        }
 
-                    Animal child = first.procreate(second);
-                    // Update positions of both parents in the set
-                    s.add(first);
-                    s.add(second);
+        // Parents lose energy, so they leave the container while it is still in order
+        s.remove(first);
+        s.remove(second);
+        Animal child = first.procreate(second);
+        // Update positions of both parents in the container
+        s.add(first);
+        s.add(second);
 
-                    assert s.contains(first) : "Assertion after update for first one failed";
-                    assert s.contains(second) : "Assertion after update for second one failed";
+        assert s.contains(first) : "Assertion after update for first one failed";
+        assert s.contains(second) : "Assertion after update for second one failed";
 
-                    place(child);
+        place(child);
 
-                    assert s.contains(first) : "Assertion after child placement for first one failed";
-                    assert s.contains(second) : "Assertion after child placement for second one failed";
-                    assert s.contains(child) : "Assertion after child placement for child failed";
+        assert s.contains(first) : "Assertion after child placement for first one failed";
+        assert s.contains(second) : "Assertion after child placement for second one failed";
+        assert s.contains(child) : "Assertion after child placement for child failed";
 
-                    Debug.println(String.format("new_s=%s", s));
-                } else {
-                    s.add(first);
-                    s.add(second);
+        if (trace) {
+            Debug.println(String.format("new_s=%s", s));
+        }
+    }
 
-                    assert s.contains(first) : "Assertion after update for first one failed";
-                    assert s.contains(second) : "Assertion after update for second one failed";
-                }
+    /**
+     * Get all settings which affect the simulation once it is running.
+     * Starting foliage, animals and energy only shape the initial world, so a checkpoint may be resumed with other ones
+     * @return settings as ints
+     */
+    private int[] settingsFingerprint() {
+        return new int[] {
+            settings.getMapType().ordinal(), settings.getMapWidth(), settings.getMapHeight(),
+            settings.getWorldSizeType().ordinal(), settings.getFoliageGrowthType().ordinal(), settings.getDailyFoliageGrowth(),
+            settings.getEnergyGain(), settings.getMinProcreationEnergy(), settings.getProcreationEnergyLoss(),
+            settings.getGenomeLength(), settings.getMinMutations(), settings.getMaxMutations(),
+            settings.getMutationType().ordinal(), settings.getBehaviourType().ordinal(),
+            settings.getLeaderboardType().ordinal(), settings.getLeaderboardSize()
+        };
+    }
+
+    private void writeSettingsFingerprint(DataOutput out) throws IOException {
+        for (final int v : settingsFingerprint()) {
+            out.writeInt(v);
+        }
+    }
+
+    private boolean matchesSettingsFingerprint(DataInput in) throws IOException {
+        boolean matches = true;
+        for (final int v : settingsFingerprint()) {
+            matches &= in.readInt() == v;
+        }
+        return matches;
+    }
+
+    /**
+     * Check that the state of the map's RNG and of every animal's RNG can be saved, before anything is written
+     * @return map's RNG
+     */
+    private SplitMix64 checkpointableRng() {
+        if (!(rng instanceof SplitMix64)) {
+            throw new IllegalStateException("Cannot save state of " + rng.getClass().getSimpleName());
+        }
+        for (int slot = 0; slot < animalStore.getSlotCount(); ++slot) {
+            final Animal a = animalStore.viewAt(slot);
+            if (a != null && !(a.getRng() instanceof SplitMix64)) {
+                throw new IllegalStateException("Cannot save state of " + a.getRng().getClass().getSimpleName());
             }
         }
+        return (SplitMix64) rng;
+    }
+
+    /**
+     * List cells with plants into plantCells
+     * @return amount of cells listed
+     */
+    private int listPlantCells() {
+        if (plantCells.length < grid.getPlantCount()) {
+            plantCells = new int[grid.getPlantCount()];
+        }
+        return grid.getPlantCells(plantCells);
     }
 
     private void growDailyFoliage() {
@@ -165,36 +410,37 @@ public abstract class AbstractWorldMap implements IWorldMap {
     }
 
     private void ageUpAll() {
-        for (Animal a : animalsByID.values()) {
-            assert a.isAlive();
-            a.ageUp();
+        statTracker.updateTotalEnergy(animalStore.ageUpAll(deadSlots));
+        for (int i = 0; i < deadSlots.size(); ++i) {
+            final int slot = deadSlots.get(i);
+            assert animalStore.energy[slot] == 0 : "Dead animal aged up";
+            animalStore.viewAt(slot).death();
         }
     }
 
     // PROTECTED METHODS
-    protected AbstractWorldMap(Random r, Settings s, StatTracker st, IFoliageGrower f) {
+    protected AbstractWorldMap(RandomGenerator r, Settings s, StatTracker st, IFoliageGrower f) {
         this(r, s, st, f, false);
     }
 
-    protected AbstractWorldMap(Random r, Settings s, StatTracker st) {
+    protected AbstractWorldMap(RandomGenerator r, Settings s, StatTracker st) {
         this(r, s, st, null, true);
     }
 
     protected void growFoliage(int amount) {
-        Vector2d spot;
-        for (int i = 0; i < amount; ++i) {
-            spot = foliageGen.getPlantSpot();
-            if (spot == null) {
-                return;
-            }
-            Plant p = new Plant(spot);
-            foliage.put(p.getPosition(), p);
+        if (plantCells.length < amount) {
+            plantCells = new int[amount];
+        }
+        final int grown = foliageGen.getPlantCells(amount, plantCells);
+        for (int i = 0; i < grown; ++i) {
+            final boolean rc = grid.addPlant(plantCells[i]);
+            assert rc : "Plant grown in a cell which already has one";
         }
     }
 
     protected void updateEpochStats() {
         statTracker.setAnimalCount(animalsByID.size());
-        statTracker.setFoliageCount(foliage.size());
+        statTracker.setFoliageCount(grid.getPlantCount());
         statTracker.setFreeFieldsCount(foliageGen.getFreeSpotsCount());
     }
 
@@ -208,7 +454,7 @@ public abstract class AbstractWorldMap implements IWorldMap {
     public boolean place(Animal animal) {
         final Vector2d pos = animal.getPosition();
         if (canPlaceAt(pos)) {
-            addAnimalToMap(pos, animal);
+            addAnimalToMap(grid.toIndex(pos), animal);
             animalsByID.put(animal.getID(), animal);
             return true;
         }
@@ -223,17 +469,20 @@ public abstract class AbstractWorldMap implements IWorldMap {
 
     @Override
     public Object objectAt(Vector2d position) {
-        TreeSet<Animal> s = animals.get(position);
-        if (!s.isEmpty()) {
-            return s.first();
+        final int cell = grid.toIndex(position);
+        final Animal a = grid.firstAnimalAt(cell);
+        if (a != null) {
+            return a;
         }
-        return foliage.get(position);
+        return grid.hasPlant(cell) ? new Plant(position) : null;
     }
 
     @Override
     public void nextEpoch() {
-        Debug.println(animalsByID);
-        Debug.println(animals);
+        if (Debug.isEnabled(Debug.Category.EPOCH, Debug.Level.TRACE)) {
+            Debug.println(animalsByID);
+            Debug.println(grid);
+        }
         ++epoch;
         statTracker.nextEpoch();
         cleanUpAll();
@@ -241,10 +490,96 @@ public abstract class AbstractWorldMap implements IWorldMap {
         feedAndProcreateAll();
         growDailyFoliage();
         ageUpAll();
+        grid.releaseEmpty();
         updateEpochStats();
         statTracker.logEpoch();
     }
 
+    @Override
+    public void save(Path path) throws IOException {
+        final SplitMix64 r = checkpointableRng();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeInt(CHECKPOINT_VERSION);
+            writeSettingsFingerprint(out);
+            out.writeLong(r.getState());
+            out.writeInt(epoch);
+            out.writeInt(nextAnimalID);
+            final int planted = listPlantCells();
+            out.writeInt(planted);
+            for (int i = 0; i < planted; ++i) {
+                out.writeInt(plantCells[i]);
+            }
+            foliageGen.writeState(out);
+            // Animals keep their slots, so that sweeps and slot reuse go on in the same order
+            animalStore.writeLayout(out);
+            out.writeInt(animalStore.size());
+            for (int slot = 0; slot < animalStore.getSlotCount(); ++slot) {
+                final Animal a = animalStore.viewAt(slot);
+                if (a != null) {
+                    a.writeState(out);
+                }
+            }
+            statTracker.writeState(out);
+        }
+    }
+
+    @Override
+    public void load(Path path) throws IOException {
+        if (epoch != 0 || !animalsByID.isEmpty()) {
+            throw new IllegalStateException("Checkpoint can only be loaded into a new map");
+        }
+        final SplitMix64 r = checkpointableRng();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+                throw new IOException("not a checkpoint: " + path);
+            }
+            if (!matchesSettingsFingerprint(in)) {
+                throw new IOException("checkpoint of a map with other settings: " + path);
+            }
+            r.setState(in.readLong());
+            epoch = in.readInt();
+            nextAnimalID = in.readInt();
+            // Drop the starting foliage grown by the constructor
+            final int planted = listPlantCells();
+            for (int i = 0; i < planted; ++i) {
+                grid.removePlant(plantCells[i]);
+            }
+            final int plantCount = in.readInt();
+            for (int i = 0; i < plantCount; ++i) {
+                grid.addPlant(in.readInt());
+            }
+            foliageGen.readState(in);
+            animalStore.readLayout(in);
+            final int animalCount = in.readInt();
+            for (int i = 0; i < animalCount; ++i) {
+                if (!place(Animal.readState(in, settings, this, statTracker))) {
+                    throw new IOException("animal out of map bounds in checkpoint: " + path);
+                }
+            }
+            // Leaderboard refers to genomes of the animals
+            statTracker.readState(in, genomePool);
+        }
+    }
+
+    @Override
+    public void setParallelism(int threads) {
+        if (parallelEngine != null) {
+            parallelEngine.shutdown();
+        }
+        parallelEngine = (threads > 1) ? new ParallelEpochEngine(this, threads) : null;
+    }
+
+    @Override
+    public AnimalStore getAnimalStore() {
+        return animalStore;
+    }
+
+    @Override
+    public GenomePool getGenomePool() {
+        return genomePool;
+    }
+
     @Override
     public int getNextAnimalID() {
         return nextAnimalID++;
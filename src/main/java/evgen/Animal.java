@@ -1,54 +1,179 @@
 package evgen;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 import evgen.lib.ConsoleColour;
 import evgen.lib.Pair;
+import evgen.lib.SplitMix64;
+
+/**
+ * View of an animal. Hot fields (position, facing, energy, age, children, eaten foliage, gene cursor)
+ * are kept in a slot of the map's {@link AnimalStore}; the view holds only what sweeps do not need.
+ */
+public class Animal implements IMapElement, Comparable<Animal> {
+    private static final int ALIVE = -1;
+
+    /**
+     * Hot fields of an animal which left the map, copied out of the store when its slot is freed
+     */
+    private static final class Remains {
+        final int x;
+        final int y;
+        final int facing;
+        final int energy;
+        final int age;
+        final int children;
+        final int eatenFoliage;
+
+        Remains(AnimalStore s, int slot) {
+            x = s.x[slot];
+            y = s.y[slot];
+            facing = s.facing[slot];
+            energy = s.energy[slot];
+            age = s.age[slot];
+            children = s.children[slot];
+            eatenFoliage = s.eatenFoliage[slot];
+        }
+    }
 
-public class Animal extends AbstractMapElement implements Comparable<Animal> {
     // PRIVATE ATTRIBUTES
     private final IWorldMap map;
-    private final Random rng;
+    private final RandomGenerator rng;
     private final Settings settings;
 
-    private MapDirection facing;
-    private int energy;
-    private int age = 0;
-    private int children = 0;
-    private int eatenFoliage = 0;
-    private List<IPositionChangeObserver> observers = new LinkedList<>();
+    private AnimalStore store;
+    private int slot;
+    private List<IPositionChangeObserver> observers = null;
     private StatTracker statTracker;
-    private Integer deathEpoch = null;
+    private int deathEpoch = ALIVE;
+    // Set once the animal is detached from the store, which is then no longer used
+    private Remains remains = null;
+    // Last position handed out, reused while the animal stays in place
+    private Vector2d position = null;
+
+    // PACKAGE-PRIVATE ATTRIBUTES
+    // Position in the CellAnimals container of the animal's cell
+    int cellIndex = -1;
 
     // PUBLIC ATTRIBUTES
     public final int id;
     public final Genotype genes;
 
+    // PRIVATE METHODS
+    /**
+     * Restore an animal into its slot of the map's store, reading the rest of its state
+     * written by {@link #writeState(DataOutput)}
+     */
+    private Animal(SplitMix64 r, Settings s, IWorldMap m, StatTracker st, int id, int slot, Genotype g, DataInput in) throws IOException {
+        rng = r;
+        settings = s;
+        map = m;
+        this.id = id;
+        store = map.getAnimalStore();
+        this.slot = slot;
+        store.claim(slot, this);
+        store.x[slot] = in.readInt();
+        store.y[slot] = in.readInt();
+        store.facing[slot] = in.readInt();
+        store.energy[slot] = in.readInt();
+        store.age[slot] = in.readInt();
+        store.children[slot] = in.readInt();
+        store.eatenFoliage[slot] = in.readInt();
+        store.geneCursor[slot] = in.readInt();
+        deathEpoch = in.readInt();
+        statTracker = st;
+        genes = g;
+        // Animals which died in the last epoch are still on the map, but their genome was already released.
+        // Living ones are counted in the leaderboard restored along with the stats
+        if (deathEpoch != ALIVE) {
+            genes.release();
+        }
+    }
+
+    // PACKAGE-PRIVATE METHODS
+    /**
+     * Restore an animal written by {@link #writeState(DataOutput)}, in the same slot of the map's store
+     * @param in input to read from
+     * @param s settings
+     * @param m map the animal is on
+     * @param st stat tracker
+     * @return animal, not yet placed on the map
+     * @throws IOException if reading fails
+     */
+    static Animal readState(DataInput in, Settings s, IWorldMap m, StatTracker st) throws IOException {
+        final int id = in.readInt();
+        final int slot = in.readInt();
+        final SplitMix64 r = new SplitMix64(in.readLong());
+        final Genotype g = new Genotype(r, s, m.getGenomePool(), in);
+        return new Animal(r, s, m, st, id, slot, g, in);
+    }
+
+    /**
+     * Write the animal's state to a checkpoint -- ID, slot, RNG state, genotype and hot fields
+     * @param out output to write to
+     * @throws IOException if writing fails
+     * @throws IllegalStateException if the animal's RNG is not a {@link SplitMix64}, so its state cannot be saved
+     */
+    void writeState(DataOutput out) throws IOException {
+        if (!(rng instanceof SplitMix64)) {
+            throw new IllegalStateException("Cannot save state of " + rng.getClass().getSimpleName());
+        }
+        out.writeInt(id);
+        out.writeInt(slot);
+        out.writeLong(((SplitMix64) rng).getState());
+        genes.writeState(out);
+        out.writeInt(store.x[slot]);
+        out.writeInt(store.y[slot]);
+        out.writeInt(store.facing[slot]);
+        out.writeInt(store.energy[slot]);
+        out.writeInt(store.age[slot]);
+        out.writeInt(store.children[slot]);
+        out.writeInt(store.eatenFoliage[slot]);
+        out.writeInt(store.geneCursor[slot]);
+        out.writeInt(deathEpoch);
+    }
+
     // PUBLIC METHODS
-    public Animal(Random r, Settings s, IWorldMap m, StatTracker st, Vector2d p, Genotype g, int e) {
+    /**
+     * Create an animal. The animal draws all of its random decisions from {@code r},
+     * so to keep runs reproducible every animal should get its own stream.
+     * State is kept in the map's animal store, or in one of the animal's own if the map has none.
+     */
+    public Animal(RandomGenerator r, Settings s, IWorldMap m, StatTracker st, Vector2d p, Genotype g, int e) {
         rng = r;
         settings = s;
         map = m;
-        pos = p;
         id = map.getNextAnimalID();
-        facing = MapDirection.fromInt(rng.nextInt(MapDirection.directionCount));
-        energy = e;
+        final AnimalStore mapStore = map.getAnimalStore();
+        store = (mapStore != null) ? mapStore : new AnimalStore(1);
+        slot = store.allocate(this);
+        store.x[slot] = p.x;
+        store.y[slot] = p.y;
+        store.facing[slot] = rng.nextInt(MapDirection.directionCount);
+        store.energy[slot] = e;
+        store.age[slot] = 0;
+        store.children[slot] = 0;
+        store.eatenFoliage[slot] = 0;
+        store.geneCursor[slot] = g.getFirstGeneIndex();
         statTracker = st;
         genes = g;
-        statTracker.addGenotype(g, id);
+        statTracker.addGenotype(g);
     }
 
-    public Animal(Random r, Settings s, IWorldMap m, StatTracker st, Vector2d p, Genotype g) {
+    public Animal(RandomGenerator r, Settings s, IWorldMap m, StatTracker st, Vector2d p, Genotype g) {
         this(r, s, m, st, p, g, s.getStartingEnergy());
     }
 
-    public Animal(Random r, Settings s, IWorldMap m, StatTracker st, Vector2d p) {
-        this(r, s, m, st, p, new Genotype(r, s));
+    public Animal(RandomGenerator r, Settings s, IWorldMap m, StatTracker st, Vector2d p) {
+        this(r, s, m, st, p, new Genotype(r, s, m.getGenomePool()));
     }
 
-    public Animal(Random r, Settings s, IWorldMap m, StatTracker st) {
+    public Animal(RandomGenerator r, Settings s, IWorldMap m, StatTracker st) {
         this(r, s, m, st, new Vector2d(r.nextInt(m.getMapBounds().first.x, m.getMapBounds().second.x + 1),
                                    r.nextInt(m.getMapBounds().first.y, m.getMapBounds().second.y + 1)));
     }
@@ -58,26 +183,37 @@ public class Animal extends AbstractMapElement implements Comparable<Animal> {
      * Gain energy as if from eating.
      */
     public void eat() {
-        energy += settings.getEnergyGain();
+        store.energy[slot] += settings.getEnergyGain();
         statTracker.updateTotalEnergy(settings.getEnergyGain());
-        eatenFoliage += 1;
+        store.eatenFoliage[slot] += 1;
     }
 
     /**
      * Lose energy as if by procreation.
      */
     public void loseEnergy() {
-        energy -= settings.getProcreationEnergyLoss();
-        if (energy <= 0) {
+        drainEnergy();
+        if (store.energy[slot] <= 0) {
             death();
         }
     }
 
+    /**
+     * Lose energy as if by procreation, without reporting death.
+     * For phases which mark dying animals for deletion instead, so that deaths are reported in ID order.
+     */
+    void drainEnergy() {
+        store.energy[slot] -= settings.getProcreationEnergyLoss();
+    }
+
     /**
      * Update facing with the next value from genome.
      */
     public void updateFacing() {
-        facing = facing.updateDirection(genes.nextDirection());
+        final int cursor = store.geneCursor[slot];
+        final int diff = genes.getGene(cursor);
+        store.geneCursor[slot] = genes.advanceGeneIndex(cursor);
+        store.facing[slot] = MapDirection.rotate(store.facing[slot], diff);
     }
 
     /**
@@ -85,8 +221,21 @@ public class Animal extends AbstractMapElement implements Comparable<Animal> {
      * @param target pair of position and facing
      */
     public void move(Pair<Vector2d, MapDirection> target) {
-        pos = target.first;
-        facing = target.second;
+        store.x[slot] = target.first.x;
+        store.y[slot] = target.first.y;
+        store.facing[slot] = target.second.facing;
+    }
+
+    /**
+     * Move an animal to the desired position and facing.
+     * @param x
+     * @param y
+     * @param facing direction as int
+     */
+    public void move(int x, int y, int facing) {
+        store.x[slot] = x;
+        store.y[slot] = y;
+        store.facing[slot] = facing;
     }
 
     /**
@@ -94,7 +243,7 @@ public class Animal extends AbstractMapElement implements Comparable<Animal> {
      * @return true if animal is still alive, false otherwise
      */
     public boolean isAlive() {
-         return energy > 0;
+         return getEnergy() > 0;
     }
 
     /**
@@ -102,20 +251,20 @@ public class Animal extends AbstractMapElement implements Comparable<Animal> {
      * @return true if animal is still alive, false otherwise
      */
     public boolean ageUp() {
-        ++age;
-        energy--;
+        ++store.age[slot];
+        store.energy[slot]--;
         statTracker.updateTotalEnergy(-1);
-        if (energy <= 0) {
+        if (store.energy[slot] <= 0) {
             death();
         }
-        return energy > 0;
+        return store.energy[slot] > 0;
     }
 
     /**
      * Check whether the animal has enough energy to procreate.
      */
     public boolean canProcreate() {
-        return energy >= settings.getMinProcreationEnergy();
+        return store.energy[slot] >= settings.getMinProcreationEnergy();
     }
 
     /**
@@ -125,37 +274,82 @@ public class Animal extends AbstractMapElement implements Comparable<Animal> {
      * @return Animal -- child of this and other
      */
     public Animal procreate(Animal other) {
-        Debug.print(String.format("p1.e=%d p2.e=%d ", this.energy, other.energy));
-        final double ratio = (double)(this.energy) / (this.energy + other.energy);
+        final int energy = this.getEnergy();
+        final int otherEnergy = other.getEnergy();
+        if (Debug.isEnabled(Debug.Category.BIRTH, Debug.Level.TRACE)) {
+            Debug.print(String.format("p1.e=%d p2.e=%d ", energy, otherEnergy));
+        }
+        final double ratio = (double)(energy) / (energy + otherEnergy);
         assert ratio > 0 && ratio < 1;
-        Genotype childGenes = new Genotype(this.genes, other.genes, ratio);
+        // Child gets its own stream, split off the stronger parent's one
+        final RandomGenerator childRng = SplitMix64.split(rng);
+        Genotype childGenes = new Genotype(childRng, this.genes, other.genes, ratio);
         this.loseEnergy();
         other.loseEnergy();
-        ++this.children;
-        ++other.children;
-        return new Animal(rng, settings, map, statTracker, pos, childGenes, 2*settings.getProcreationEnergyLoss());
+        ++this.store.children[this.slot];
+        ++other.store.children[other.slot];
+        return new Animal(childRng, settings, map, statTracker, getPosition(), childGenes, 2*settings.getProcreationEnergyLoss());
     }
 
-    public MapDirection getFacing() { return facing; }
-    public int getEnergy() { return energy; }
-    public int getChildren() { return children; }
-    public  int getEatenFoliage() { return eatenFoliage; }
-    public int getAge() { return age; }
+    public RandomGenerator getRng() { return rng; }
+    public MapDirection getFacing() { return MapDirection.fromInt((remains == null) ? store.facing[slot] : remains.facing); }
+    public int getEnergy() { return (remains == null) ? store.energy[slot] : remains.energy; }
+    public int getChildren() { return (remains == null) ? store.children[slot] : remains.children; }
+    public  int getEatenFoliage() { return (remains == null) ? store.eatenFoliage[slot] : remains.eatenFoliage; }
+    public int getAge() { return (remains == null) ? store.age[slot] : remains.age; }
     public int getID() { return id; }
+    public int getX() { return (remains == null) ? store.x[slot] : remains.x; }
+    public int getY() { return (remains == null) ? store.y[slot] : remains.y; }
     public int getDeathEpoch() { return deathEpoch; }
     public void death() {
+        // Animals dying during an epoch are reported again when removed from the map
+        if (deathEpoch != ALIVE) {
+            return;
+        }
         deathEpoch = statTracker.getEpoch();
         statTracker.animalDied(this);
+        genes.release();
+    }
+
+    /**
+     * Get slot of the animal in its store
+     * @return slot index
+     */
+    int getSlot() { return slot; }
+
+    /**
+     * Copy the animal's state out of the shared store, freeing the slot for reuse.
+     * Called once the animal has left the map for good; it can still be inspected afterwards, but not changed.
+     */
+    void detach() {
+        remains = new Remains(store, slot);
+        store.free(slot);
+        store = null;
+    }
+
+    @Override
+    public Vector2d getPosition() {
+        final int x = getX();
+        final int y = getY();
+        if (position == null || position.x != x || position.y != y) {
+            position = new Vector2d(x, y);
+        }
+        return position;
+    }
+
+    @Override
+    public boolean isAt(Vector2d position) {
+        return getX() == position.x && getY() == position.y;
     }
 
     @Override
     public String toString() {
-        return String.format("A%d.p%s.f%s.e%d.%dy.%dc", id, pos, facing, energy, age, children);
+        return String.format("A%d.p%s.f%s.e%d.%dy.%dc", id, getPosition(), getFacing(), getEnergy(), getAge(), getChildren());
     }
 
     @Override
     public String getSprite() {
-        String s = switch (facing) {
+        String s = switch (getFacing()) {
             case WEST -> "\u2190";
             case NORTH -> "\u2191";
             case EAST -> "\u2192";
@@ -174,12 +368,12 @@ public class Animal extends AbstractMapElement implements Comparable<Animal> {
             return 0;
         }
 
-        int res = this.energy - other.energy;
+        int res = this.getEnergy() - other.getEnergy();
         if (res == 0) {
-            res = this.age - other.age;
+            res = this.getAge() - other.getAge();
         }
         if (res == 0) {
-            res = this.children - other.children;
+            res = this.getChildren() - other.getChildren();
         }
         if (res == 0) {
             res = this.id - other.id;
@@ -198,15 +392,18 @@ public class Animal extends AbstractMapElement implements Comparable<Animal> {
     }
 
     public int getEnergyLvl() {
-        double ratio = 10.0 * energy / settings.getMinProcreationEnergy();
+        double ratio = 10.0 * getEnergy() / settings.getMinProcreationEnergy();
         return ratio >= 10 ? 10 : (int) Math.round(ratio);
     }
 
     public boolean addObserver(IPositionChangeObserver o) {
+        if (observers == null) {
+            observers = new LinkedList<>();
+        }
         return observers.add(o);
     }
 
     public boolean removeObserver(IPositionChangeObserver o) {
-        return observers.remove(o);
+        return observers != null && observers.remove(o);
     }
 }
@@ -0,0 +1,211 @@
+package evgen;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import evgen.lib.IntList;
+
+/**
+ * Struct-of-arrays store of animal state. Hot fields of every animal live in parallel primitive arrays,
+ * indexed by a slot, and {@link Animal} objects are views over their slot.
+ * Slots of animals which left the map are reused through a free list,
+ * so the arrays only grow as long as the largest population seen.
+ * Sweeps over all animals go through the slots in order and only touch the arrays they need.
+ */
+public class AnimalStore {
+    private static final int NO_SLOT = -1;
+
+    // HOT FIELDS, indexed by slot; values in free slots are meaningless
+    int[] x;
+    int[] y;
+    int[] facing;
+    int[] energy;
+    int[] age;
+    int[] children;
+    int[] eatenFoliage;
+    int[] geneCursor;
+
+    // PRIVATE ATTRIBUTES
+    // Animal using each slot, null for free slots
+    private Animal[] views;
+    // Next free slot after each free slot
+    private int[] nextFree;
+    private int freeHead = NO_SLOT;
+    private int slotCount = 0;
+    private int size = 0;
+
+    // PRIVATE METHODS
+    private void grow() {
+        final int n = Math.max(1, 2 * views.length);
+        x = Arrays.copyOf(x, n);
+        y = Arrays.copyOf(y, n);
+        facing = Arrays.copyOf(facing, n);
+        energy = Arrays.copyOf(energy, n);
+        age = Arrays.copyOf(age, n);
+        children = Arrays.copyOf(children, n);
+        eatenFoliage = Arrays.copyOf(eatenFoliage, n);
+        geneCursor = Arrays.copyOf(geneCursor, n);
+        views = Arrays.copyOf(views, n);
+        nextFree = Arrays.copyOf(nextFree, n);
+    }
+
+    // PACKAGE-PRIVATE METHODS
+    /**
+     * Take a slot for an animal. Fields of the slot are left for the caller to set.
+     * @param view animal which will be using the slot
+     * @return slot index
+     */
+    int allocate(Animal view) {
+        int slot = freeHead;
+        if (slot != NO_SLOT) {
+            freeHead = nextFree[slot];
+        } else {
+            if (slotCount == views.length) {
+                grow();
+            }
+            slot = slotCount++;
+        }
+        views[slot] = view;
+        ++size;
+        return slot;
+    }
+
+    /**
+     * Give a slot back for reuse
+     * @param slot slot index
+     */
+    void free(int slot) {
+        assert views[slot] != null : "Slot freed twice";
+        views[slot] = null;
+        nextFree[slot] = freeHead;
+        freeHead = slot;
+        --size;
+    }
+
+    /**
+     * Take a given slot for an animal, when restoring a layout read by {@link #readLayout(DataInput)}
+     * @param slot slot index, in use in the restored layout
+     * @param view animal which will be using the slot
+     */
+    void claim(int slot, Animal view) {
+        assert slot < slotCount && views[slot] == null : "Slot claimed twice";
+        views[slot] = view;
+        ++size;
+    }
+
+    /**
+     * Write slot count and free list, so that slots can be restored as they were
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    void writeLayout(DataOutput out) throws IOException {
+        out.writeInt(slotCount);
+        out.writeInt(slotCount - size);
+        for (int slot = freeHead; slot != NO_SLOT; slot = nextFree[slot]) {
+            out.writeInt(slot);
+        }
+    }
+
+    /**
+     * Restore slot count and free list written by {@link #writeLayout(DataOutput)} into an empty store.
+     * Used slots are left unclaimed, for the animals to {@link #claim(int, Animal)} them
+     * @param in input to read from
+     * @throws IOException if reading fails
+     */
+    void readLayout(DataInput in) throws IOException {
+        assert size == 0 && slotCount == 0 : "Layout restored into a store in use";
+        final int slots = in.readInt();
+        while (views.length < slots) {
+            grow();
+        }
+        slotCount = slots;
+        final int freeCount = in.readInt();
+        int last = NO_SLOT;
+        for (int i = 0; i < freeCount; ++i) {
+            final int slot = in.readInt();
+            if (last == NO_SLOT) {
+                freeHead = slot;
+            } else {
+                nextFree[last] = slot;
+            }
+            last = slot;
+        }
+        if (last != NO_SLOT) {
+            nextFree[last] = NO_SLOT;
+        }
+    }
+
+    // PUBLIC METHODS
+    public AnimalStore() {
+        this(16);
+    }
+
+    /**
+     * Construct an empty store
+     * @param capacity amount of slots to allocate up front
+     */
+    public AnimalStore(int capacity) {
+        x = new int[capacity];
+        y = new int[capacity];
+        facing = new int[capacity];
+        energy = new int[capacity];
+        age = new int[capacity];
+        children = new int[capacity];
+        eatenFoliage = new int[capacity];
+        geneCursor = new int[capacity];
+        views = new Animal[capacity];
+        nextFree = new int[capacity];
+    }
+
+    /**
+     * Get amount of slots ever taken, in use or free; all used slots are below it
+     * @return slot count
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Get animal using a slot
+     * @param slot slot index, between 0 and {@code getSlotCount()}-1
+     * @return animal, null if the slot is free
+     */
+    public Animal viewAt(int slot) {
+        return views[slot];
+    }
+
+    /**
+     * Age every animal up at once -- increment age, decrement energy.
+     * Free slots are updated too, so that the loops are branch-free and get vectorised by the JIT.
+     * @param deaths list to put slots of animals left without energy in; cleared first
+     * @return total energy change of all animals
+     */
+    public int ageUpAll(IntList deaths) {
+        final int n = slotCount;
+        final int[] age = this.age;
+        final int[] energy = this.energy;
+        for (int i = 0; i < n; ++i) {
+            ++age[i];
+        }
+        for (int i = 0; i < n; ++i) {
+            --energy[i];
+        }
+        deaths.clear();
+        for (int i = 0; i < n; ++i) {
+            if (energy[i] <= 0 && views[i] != null) {
+                deaths.add(i);
+            }
+        }
+        return -size;
+    }
+
+    /**
+     * Get amount of animals in the store
+     * @return animal count
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,186 @@
+package evgen;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader of stats files written by {@link BinaryStatsWriter}. Blocks are memory-mapped as they are first
+ * accessed, so single values, slices and whole columns can be read without parsing or loading the rest of the file.
+ */
+public class BinaryStatsReader implements Closeable {
+    // PRIVATE ATTRIBUTES
+    private final FileChannel channel;
+    private final int blockRows;
+    private final long blockSize;
+    private final long rowCount;
+    private final MappedByteBuffer[] blocks;
+    private final String[] dictionary;
+
+    // PRIVATE METHODS
+    private ByteBuffer blockOf(long row) throws IOException {
+        final int b = (int) (row / blockRows);
+        if (blocks[b] == null) {
+            blocks[b] = channel.map(FileChannel.MapMode.READ_ONLY, BinaryStatsWriter.HEADER_SIZE + b * blockSize, blockSize);
+            blocks[b].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return blocks[b];
+    }
+
+    private int positionOf(StatsColumn c, long row) {
+        return c.offsetIn(blockRows) + (int) (row % blockRows) * c.width;
+    }
+
+    private void checkRange(long from, int count) {
+        if (from < 0 || count < 0 || from + count > rowCount) {
+            throw new IndexOutOfBoundsException(String.format("rows %d..%d out of %d", from, from + count, rowCount));
+        }
+    }
+
+    private String[] readDictionary(long offset, int size) throws IOException {
+        final String[] genomes = new String[size];
+        if (size == 0) {
+            return genomes;
+        }
+        final MappedByteBuffer b = channel.map(FileChannel.MapMode.READ_ONLY, offset, channel.size() - offset);
+        b.order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < size; ++i) {
+            final int length = b.getInt();
+            StringBuilder s = new StringBuilder(length);
+            for (int j = 0; j < length; ++j) {
+                s.append((char)('0' + b.get()));
+            }
+            genomes[i] = s.toString();
+        }
+        return genomes;
+    }
+
+    // PUBLIC METHODS
+    /**
+     * Open a stats file
+     * @param path file to read
+     * @throws IOException if the file cannot be read or is not a stats file
+     */
+    public BinaryStatsReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() < BinaryStatsWriter.HEADER_SIZE) {
+                throw new IOException("not a stats file: " + path);
+            }
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BinaryStatsWriter.HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(BinaryStatsWriter.HEADER_MAGIC) != BinaryStatsWriter.MAGIC
+                || header.getInt(BinaryStatsWriter.HEADER_VERSION) != BinaryStatsWriter.VERSION
+                || header.getInt(BinaryStatsWriter.HEADER_COLUMN_COUNT) != StatsColumn.values().length) {
+                throw new IOException("not a stats file: " + path);
+            }
+            blockRows = header.getInt(BinaryStatsWriter.HEADER_BLOCK_ROWS);
+            blockSize = (long) blockRows * StatsColumn.rowWidth;
+            rowCount = header.getLong(BinaryStatsWriter.HEADER_ROW_COUNT);
+            blocks = new MappedByteBuffer[(int) ((rowCount + blockRows - 1) / blockRows)];
+            // Dictionary is only there if the writer was closed
+            dictionary = readDictionary(header.getLong(BinaryStatsWriter.HEADER_DICTIONARY_OFFSET),
+                                        header.getInt(BinaryStatsWriter.HEADER_DICTIONARY_SIZE));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Get a value of an int column
+     * @param c column
+     * @param row row index
+     * @return value
+     * @throws IOException if the file cannot be read
+     */
+    public int getInt(StatsColumn c, long row) throws IOException {
+        assert !c.isDouble;
+        checkRange(row, 1);
+        return blockOf(row).getInt(positionOf(c, row));
+    }
+
+    /**
+     * Get a value of a double column
+     * @param c column
+     * @param row row index
+     * @return value
+     * @throws IOException if the file cannot be read
+     */
+    public double getDouble(StatsColumn c, long row) throws IOException {
+        assert c.isDouble;
+        checkRange(row, 1);
+        return blockOf(row).getDouble(positionOf(c, row));
+    }
+
+    /**
+     * Read a slice of an int column
+     * @param c column
+     * @param from first row
+     * @param count amount of rows
+     * @return values
+     * @throws IOException if the file cannot be read
+     */
+    public int[] readInts(StatsColumn c, long from, int count) throws IOException {
+        assert !c.isDouble;
+        checkRange(from, count);
+        final int[] out = new int[count];
+        int done = 0;
+        while (done < count) {
+            final long row = from + done;
+            final int n = (int) Math.min(count - done, blockRows - row % blockRows);
+            blockOf(row).slice(positionOf(c, row), n * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(out, done, n);
+            done += n;
+        }
+        return out;
+    }
+
+    /**
+     * Read a slice of a double column
+     * @param c column
+     * @param from first row
+     * @param count amount of rows
+     * @return values
+     * @throws IOException if the file cannot be read
+     */
+    public double[] readDoubles(StatsColumn c, long from, int count) throws IOException {
+        assert c.isDouble;
+        checkRange(from, count);
+        final double[] out = new double[count];
+        int done = 0;
+        while (done < count) {
+            final long row = from + done;
+            final int n = (int) Math.min(count - done, blockRows - row % blockRows);
+            blockOf(row).slice(positionOf(c, row), n * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(out, done, n);
+            done += n;
+        }
+        return out;
+    }
+
+    /**
+     * Get a genome from the dictionary, as in the CSV log
+     * @param index genome index, as stored in {@link StatsColumn#MOST_POPULAR_GENOME}
+     * @return genes, one digit per gene; "null" for index -1
+     */
+    public String getGenome(int index) {
+        return (index == -1) ? "null" : dictionary[index];
+    }
+
+    public int getDictionarySize() {
+        return dictionary.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
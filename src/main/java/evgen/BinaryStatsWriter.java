@@ -0,0 +1,148 @@
+package evgen;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Epoch stats observer writing a binary columnar file, as an alternative to the CSV log.
+ * The file starts with a header, followed by blocks of BLOCK_ROWS rows; within a block every
+ * {@link StatsColumn} is stored as a contiguous array of fixed-width little-endian values.
+ * Blocks are written through memory-mapped buffers, one block at a time.
+ * Most popular genomes are stored as indices into a genome dictionary, which is appended after
+ * the last block on close. Read back with {@link BinaryStatsReader}.
+ */
+public class BinaryStatsWriter implements IEpochStatsObserver, Closeable {
+    static final int MAGIC = 0x45564753;
+    static final int VERSION = 1;
+    static final int BLOCK_ROWS = 4096;
+    static final int HEADER_SIZE = 64;
+    // Header fields
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_BLOCK_ROWS = 8;
+    static final int HEADER_COLUMN_COUNT = 12;
+    static final int HEADER_ROW_COUNT = 16;
+    static final int HEADER_DICTIONARY_OFFSET = 24;
+    static final int HEADER_DICTIONARY_SIZE = 32;
+
+    // PRIVATE ATTRIBUTES
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final long blockSize;
+    private MappedByteBuffer block = null;
+    private long rowCount = 0;
+    private final Map<Genome, Integer> dictionaryIndex = new HashMap<>();
+    private final List<Genome> dictionary = new ArrayList<>();
+    private boolean closed = false;
+
+    // PRIVATE METHODS
+    private int genomeIndex(Genome g) {
+        if (g == null) {
+            return -1;
+        }
+        Integer i = dictionaryIndex.get(g);
+        if (i == null) {
+            i = dictionary.size();
+            dictionaryIndex.put(g, i);
+            dictionary.add(g);
+        }
+        return i;
+    }
+
+    private void writeDictionary(long offset) throws IOException {
+        int size = 0;
+        for (final Genome g : dictionary) {
+            size += Integer.BYTES + g.length();
+        }
+        ByteBuffer b = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        for (final Genome g : dictionary) {
+            b.putInt(g.length());
+            for (int i = 0; i < g.length(); ++i) {
+                b.put((byte) g.getGene(i));
+            }
+        }
+        b.flip();
+        while (b.hasRemaining()) {
+            offset += channel.write(b, offset);
+        }
+    }
+
+    // PUBLIC METHODS
+    /**
+     * Create the file, overwriting any existing one
+     * @param path file to write to
+     * @throws IOException if the file cannot be created
+     */
+    public BinaryStatsWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                   StandardOpenOption.READ, StandardOpenOption.WRITE);
+        blockSize = (long) BLOCK_ROWS * StatsColumn.rowWidth;
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(HEADER_MAGIC, MAGIC);
+        header.putInt(HEADER_VERSION, VERSION);
+        header.putInt(HEADER_BLOCK_ROWS, BLOCK_ROWS);
+        header.putInt(HEADER_COLUMN_COUNT, StatsColumn.values().length);
+        header.putLong(HEADER_ROW_COUNT, 0);
+        header.putLong(HEADER_DICTIONARY_OFFSET, 0);
+        header.putInt(HEADER_DICTIONARY_SIZE, 0);
+    }
+
+    @Override
+    public void epochLogged(StatTracker st) {
+        final int row = (int) (rowCount % BLOCK_ROWS);
+        if (row == 0) {
+            try {
+                block = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (rowCount / BLOCK_ROWS) * blockSize, blockSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            block.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        block.putInt(StatsColumn.EPOCH.offsetIn(BLOCK_ROWS) + row * Integer.BYTES, st.getEpoch());
+        block.putInt(StatsColumn.ANIMAL_COUNT.offsetIn(BLOCK_ROWS) + row * Integer.BYTES, st.getAnimalCount());
+        block.putInt(StatsColumn.FOLIAGE_COUNT.offsetIn(BLOCK_ROWS) + row * Integer.BYTES, st.getFoliageCount());
+        block.putInt(StatsColumn.FREE_FIELDS_COUNT.offsetIn(BLOCK_ROWS) + row * Integer.BYTES, st.getFreeFieldsCount());
+        block.putInt(StatsColumn.MOST_POPULAR_GENOME.offsetIn(BLOCK_ROWS) + row * Integer.BYTES, genomeIndex(st.getMostPopularGenome()));
+        block.putDouble(StatsColumn.AVG_ENERGY.offsetIn(BLOCK_ROWS) + row * Double.BYTES, st.getAvgEnergy());
+        block.putDouble(StatsColumn.AVG_LIFE_LENGTH.offsetIn(BLOCK_ROWS) + row * Double.BYTES, st.getAvgLifeLength());
+        ++rowCount;
+        header.putLong(HEADER_ROW_COUNT, rowCount);
+    }
+
+    /**
+     * Append the genome dictionary, finish the header and close the file. Does nothing if already closed
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            final long blocks = (rowCount + BLOCK_ROWS - 1) / BLOCK_ROWS;
+            final long dictionaryOffset = HEADER_SIZE + blocks * blockSize;
+            writeDictionary(dictionaryOffset);
+            header.putLong(HEADER_DICTIONARY_OFFSET, dictionaryOffset);
+            header.putInt(HEADER_DICTIONARY_SIZE, dictionary.size());
+            if (block != null) {
+                block.force();
+            }
+            header.force();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package evgen;
+
+import java.util.Arrays;
+
+/**
+ * Animals present in a single map cell, strongest first according to their natural ordering.
+ * Up to INLINE_CAPACITY animals -- the common case -- are kept in a small sorted array;
+ * crowded cells switch to a binary heap in the same array. Either way the strongest animal is first
+ * and the second strongest is found without reordering anything, and nothing is allocated
+ * except when the array has to grow.
+ * Every animal remembers its index in the array, so checking membership and removing take no search.
+ * Animals are compared as they are, so an animal's energy, age or children may only change while it is
+ * out of the container -- unless the change keeps the order (all animals aging, the strongest one eating).
+ */
+public class CellAnimals {
+    private static final int INLINE_CAPACITY = 4;
+
+    // PRIVATE ATTRIBUTES
+    private Animal[] animals = new Animal[INLINE_CAPACITY];
+    private int size = 0;
+
+    // PRIVATE METHODS
+    private static boolean stronger(Animal a, Animal b) {
+        return a.compareTo(b) < 0;
+    }
+
+    private void set(int i, Animal a) {
+        animals[i] = a;
+        a.cellIndex = i;
+    }
+
+    // Move animal at i towards the front of a sorted array
+    private void insertSorted(int i) {
+        final Animal a = animals[i];
+        while (i > 0 && stronger(a, animals[i - 1])) {
+            set(i, animals[i - 1]);
+            --i;
+        }
+        set(i, a);
+    }
+
+    private void siftUp(int i) {
+        final Animal a = animals[i];
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (!stronger(a, animals[parent])) {
+                break;
+            }
+            set(i, animals[parent]);
+            i = parent;
+        }
+        set(i, a);
+    }
+
+    private void siftDown(int i) {
+        final Animal a = animals[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && stronger(animals[child + 1], animals[child])) {
+                ++child;
+            }
+            if (!stronger(animals[child], a)) {
+                break;
+            }
+            set(i, animals[child]);
+            i = child;
+        }
+        set(i, a);
+    }
+
+    // PUBLIC METHODS
+    /**
+     * Add an animal
+     * @param a animal, not present in any other container
+     * @return false if the animal was already present, true otherwise
+     */
+    public boolean add(Animal a) {
+        if (contains(a)) {
+            return false;
+        }
+        if (size == animals.length) {
+            animals = Arrays.copyOf(animals, 2 * size);
+        }
+        animals[size] = a;
+        ++size;
+        // A sorted array is a valid heap, so growing past INLINE_CAPACITY needs no conversion
+        if (size <= INLINE_CAPACITY) {
+            insertSorted(size - 1);
+        } else {
+            siftUp(size - 1);
+        }
+        return true;
+    }
+
+    /**
+     * Remove an animal
+     * @param a animal
+     * @return true if the animal was present, false otherwise
+     */
+    public boolean remove(Animal a) {
+        if (!contains(a)) {
+            return false;
+        }
+        final int i = a.cellIndex;
+        if (size <= INLINE_CAPACITY) {
+            for (int j = i + 1; j < size; ++j) {
+                set(j - 1, animals[j]);
+            }
+            animals[--size] = null;
+            return true;
+        }
+        final Animal last = animals[--size];
+        animals[size] = null;
+        if (i < size) {
+            set(i, last);
+            siftUp(i);
+            siftDown(last.cellIndex);
+        }
+        if (size == INLINE_CAPACITY) {
+            for (int j = 1; j < size; ++j) {
+                insertSorted(j);
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(Animal a) {
+        final int i = a.cellIndex;
+        return i >= 0 && i < size && animals[i] == a;
+    }
+
+    /**
+     * Get the strongest animal
+     * @return animal, null if empty
+     */
+    public Animal first() {
+        return (size == 0) ? null : animals[0];
+    }
+
+    /**
+     * Get the second strongest animal
+     * @return animal, null if there are less than two animals
+     */
+    public Animal second() {
+        if (size < 2) {
+            return null;
+        }
+        return (size > 2 && stronger(animals[2], animals[1])) ? animals[2] : animals[1];
+    }
+
+    /**
+     * Get animal at given position in the container, for iterating over all animals.
+     * Only the first animal is guaranteed to be in order
+     * @param i position, between 0 and {@code size()}-1
+     * @return animal
+     */
+    public Animal get(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return animals[i];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder("[");
+        for (int i = 0; i < size; ++i) {
+            if (i > 0) {
+                s.append(", ");
+            }
+            s.append(animals[i]);
+        }
+        return s.append(']').toString();
+    }
+}
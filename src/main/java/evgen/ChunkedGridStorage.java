@@ -0,0 +1,371 @@
+package evgen;
+
+import evgen.lib.IntList;
+import evgen.lib.SparseIntRandomSet;
+
+/**
+ * Storage of map cells split into 64x64 chunks, for large maps.
+ * A chunk is only allocated once something enters it, and holds occupancy and plant bitsets;
+ * its animal containers are allocated when the first animal enters. A cell's container is dropped
+ * as soon as its last animal leaves, and chunks left without animals (or without anything at all)
+ * give their memory back on {@link #releaseEmpty()}. Empty regions of the map then cost a single
+ * null reference per chunk, so memory is proportional to the currently populated area.
+ * Cells are indexed the same way as in {@link GridStorage}.
+ */
+public class ChunkedGridStorage implements IGridStorage {
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int CELLS_PER_CHUNK = CHUNK_SIZE * CHUNK_SIZE;
+
+    private static class Chunk {
+        // One bit per cell, CHUNK_SIZE cells per word
+        final long[] occupied = new long[CELLS_PER_CHUNK / Long.SIZE];
+        final long[] plants = new long[CELLS_PER_CHUNK / Long.SIZE];
+        CellAnimals[] animals = null;
+        // Amounts of set bits in the bitsets
+        int occupiedCount = 0;
+        int plantCount = 0;
+    }
+
+    // PRIVATE ATTRIBUTES
+    private final int width;
+    private final int height;
+    private final int chunksX;
+    private final Chunk[] chunks;
+    private int plantCount = 0;
+    // List of occupied cells, same as GridStorage's but sparse
+    private final SparseIntRandomSet occupied = new SparseIntRandomSet();
+    // Chunks which have been left without animals or plants since the last release, may repeat
+    private final IntList emptiedChunks = new IntList();
+    // Planted chunks of a single chunk row, for listing plants
+    private final IntList plantedChunks = new IntList();
+
+    // PRIVATE METHODS
+    private int chunkOf(int index) {
+        return ((index / width) >> CHUNK_BITS) * chunksX + ((index % width) >> CHUNK_BITS);
+    }
+
+    private int localOf(int index) {
+        return (((index / width) & CHUNK_MASK) << CHUNK_BITS) | ((index % width) & CHUNK_MASK);
+    }
+
+    private static boolean getBit(long[] bits, int local) {
+        return (bits[local >>> 6] & (1L << local)) != 0;
+    }
+
+    private static void setBit(long[] bits, int local, boolean value) {
+        if (value) {
+            bits[local >>> 6] |= 1L << local;
+        } else {
+            bits[local >>> 6] &= ~(1L << local);
+        }
+    }
+
+    // Chunks may be created by concurrent untracked adds to distinct cells, hence the locking
+    private synchronized Chunk createChunk(int chunkIndex) {
+        Chunk c = chunks[chunkIndex];
+        if (c == null) {
+            c = new Chunk();
+            chunks[chunkIndex] = c;
+        }
+        return c;
+    }
+
+    private synchronized CellAnimals[] createAnimals(int chunkIndex) {
+        final Chunk c = createChunk(chunkIndex);
+        if (c.animals == null) {
+            c.animals = new CellAnimals[CELLS_PER_CHUNK];
+        }
+        return c.animals;
+    }
+
+    private CellAnimals getOrCreateAnimals(int index) {
+        final int chunkIndex = chunkOf(index);
+        final Chunk c = chunks[chunkIndex];
+        CellAnimals[] animals = (c == null) ? null : c.animals;
+        if (animals == null) {
+            animals = createAnimals(chunkIndex);
+        }
+        final int local = localOf(index);
+        CellAnimals s = animals[local];
+        if (s == null) {
+            s = new CellAnimals();
+            animals[local] = s;
+        }
+        return s;
+    }
+
+    private void markOccupied(int index) {
+        final boolean rc = occupied.add(index);
+        assert rc;
+        final Chunk c = chunks[chunkOf(index)];
+        setBit(c.occupied, localOf(index), true);
+        ++c.occupiedCount;
+    }
+
+    /**
+     * Mark a cell empty and drop its container. Only called once the cell has no animals,
+     * outside of untracked updates, so that no one else is using the container
+     */
+    private void markEmpty(int index) {
+        final boolean rc = occupied.remove(index);
+        assert rc;
+        final int chunkIndex = chunkOf(index);
+        final Chunk c = chunks[chunkIndex];
+        final int local = localOf(index);
+        setBit(c.occupied, local, false);
+        c.animals[local] = null;
+        if (--c.occupiedCount == 0) {
+            emptiedChunks.add(chunkIndex);
+        }
+    }
+
+    private boolean isMarkedOccupied(int index) {
+        final Chunk c = chunks[chunkOf(index)];
+        return c != null && getBit(c.occupied, localOf(index));
+    }
+
+    // PUBLIC METHODS
+    public ChunkedGridStorage(int width, int height) {
+        this.width = width;
+        this.height = height;
+        chunksX = (width + CHUNK_MASK) >> CHUNK_BITS;
+        chunks = new Chunk[chunksX * ((height + CHUNK_MASK) >> CHUNK_BITS)];
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int size() {
+        return width * height;
+    }
+
+    @Override
+    public int toIndex(int x, int y) {
+        return y * width + x;
+    }
+
+    @Override
+    public int toIndex(Vector2d pos) {
+        return toIndex(pos.x, pos.y);
+    }
+
+    @Override
+    public Vector2d toPosition(int index) {
+        return new Vector2d(index % width, index / width);
+    }
+
+    @Override
+    public CellAnimals animalsAt(int index) {
+        final Chunk c = chunks[chunkOf(index)];
+        return (c == null || c.animals == null) ? null : c.animals[localOf(index)];
+    }
+
+    @Override
+    public Animal firstAnimalAt(int index) {
+        final CellAnimals s = animalsAt(index);
+        return (s == null || s.isEmpty()) ? null : s.first();
+    }
+
+    @Override
+    public boolean addAnimal(int index, Animal animal) {
+        final CellAnimals s = getOrCreateAnimals(index);
+        if (!s.add(animal)) {
+            return false;
+        }
+        if (s.size() == 1) {
+            markOccupied(index);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean removeAnimal(int index, Animal animal) {
+        final CellAnimals s = animalsAt(index);
+        if (s == null || !s.remove(animal)) {
+            return false;
+        }
+        if (s.isEmpty()) {
+            markEmpty(index);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAnimalUntracked(int index, Animal animal) {
+        return getOrCreateAnimals(index).add(animal);
+    }
+
+    @Override
+    public boolean removeAnimalUntracked(int index, Animal animal) {
+        final CellAnimals s = animalsAt(index);
+        return s != null && s.remove(animal);
+    }
+
+    @Override
+    public void updateOccupancy(int index) {
+        final CellAnimals s = animalsAt(index);
+        final boolean isOccupied = s != null && !s.isEmpty();
+        final boolean wasOccupied = isMarkedOccupied(index);
+        if (isOccupied && !wasOccupied) {
+            markOccupied(index);
+        } else if (!isOccupied && wasOccupied) {
+            markEmpty(index);
+        } else if (s != null && !isOccupied) {
+            // Animal passed through the cell in untracked updates
+            final int chunkIndex = chunkOf(index);
+            final Chunk c = chunks[chunkIndex];
+            c.animals[localOf(index)] = null;
+            if (c.occupiedCount == 0) {
+                emptiedChunks.add(chunkIndex);
+            }
+        }
+    }
+
+    @Override
+    public boolean containsAnimal(int index, Animal animal) {
+        final CellAnimals s = animalsAt(index);
+        return s != null && s.contains(animal);
+    }
+
+    @Override
+    public int getOccupiedCount() {
+        return occupied.size();
+    }
+
+    @Override
+    public int getOccupiedCell(int i) {
+        return occupied.get(i);
+    }
+
+    @Override
+    public boolean hasPlant(int index) {
+        final Chunk c = chunks[chunkOf(index)];
+        return c != null && getBit(c.plants, localOf(index));
+    }
+
+    @Override
+    public boolean addPlant(int index) {
+        final int chunkIndex = chunkOf(index);
+        Chunk c = chunks[chunkIndex];
+        if (c == null) {
+            c = createChunk(chunkIndex);
+        }
+        final int local = localOf(index);
+        if (getBit(c.plants, local)) {
+            return false;
+        }
+        setBit(c.plants, local, true);
+        ++c.plantCount;
+        ++plantCount;
+        return true;
+    }
+
+    @Override
+    public boolean removePlant(int index) {
+        final int chunkIndex = chunkOf(index);
+        final Chunk c = chunks[chunkIndex];
+        final int local = localOf(index);
+        if (c == null || !getBit(c.plants, local)) {
+            return false;
+        }
+        setBit(c.plants, local, false);
+        if (--c.plantCount == 0) {
+            emptiedChunks.add(chunkIndex);
+        }
+        --plantCount;
+        return true;
+    }
+
+    @Override
+    public int getPlantCount() {
+        return plantCount;
+    }
+
+    /**
+     * List cells with plants, in ascending order. Only allocated chunks are visited;
+     * a chunk's bitset word holds one of its rows, so rows are walked across the planted chunks of a chunk row
+     */
+    @Override
+    public int getPlantCells(int[] out) {
+        int count = 0;
+        for (int chunkRow = 0; chunkRow < chunks.length; chunkRow += chunksX) {
+            plantedChunks.clear();
+            for (int chunkIndex = chunkRow; chunkIndex < chunkRow + chunksX; ++chunkIndex) {
+                final Chunk c = chunks[chunkIndex];
+                if (c != null && c.plantCount > 0) {
+                    plantedChunks.add(chunkIndex);
+                }
+            }
+            for (int row = 0; row < CHUNK_SIZE; ++row) {
+                final int y = ((chunkRow / chunksX) << CHUNK_BITS) + row;
+                for (int i = 0; i < plantedChunks.size(); ++i) {
+                    final int chunkIndex = plantedChunks.get(i);
+                    final int x0 = (chunkIndex - chunkRow) << CHUNK_BITS;
+                    long word = chunks[chunkIndex].plants[row];
+                    while (word != 0) {
+                        out[count++] = toIndex(x0 + Long.numberOfTrailingZeros(word), y);
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Drop animal containers of chunks left without animals, and chunks left without animals or plants.
+     * Chunks are not freed as soon as they empty, so that an animal wandering alone through a chunk
+     * does not reallocate it with every step
+     */
+    @Override
+    public void releaseEmpty() {
+        for (int i = 0; i < emptiedChunks.size(); ++i) {
+            final int chunkIndex = emptiedChunks.get(i);
+            final Chunk c = chunks[chunkIndex];
+            if (c == null || c.occupiedCount > 0) {
+                continue;
+            }
+            c.animals = null;
+            if (c.plantCount == 0) {
+                chunks[chunkIndex] = null;
+            }
+        }
+        emptiedChunks.clear();
+    }
+
+    /**
+     * Get amount of chunks currently allocated
+     * @return allocated chunk count
+     */
+    public int getAllocatedChunkCount() {
+        int count = 0;
+        for (final Chunk c : chunks) {
+            if (c != null) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder("{");
+        for (int i = 0; i < occupied.size(); ++i) {
+            if (i > 0) {
+                s.append(", ");
+            }
+            s.append(toPosition(occupied.get(i))).append('=').append(animalsAt(occupied.get(i)));
+        }
+        return s.append('}').toString();
+    }
+}
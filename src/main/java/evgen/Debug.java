@@ -1,19 +1,90 @@
 package evgen;
 
+import java.util.Arrays;
+
+/**
+ * Debug output, off by default. Messages belong to a category and have a level;
+ * a message should be printed when debug is on and its level is within the category's level.
+ * Callers check {@link #isEnabled} before building a message, so that nothing is formatted unless it is printed;
+ * nothing is printed while debug is off either way.
+ */
 public class Debug {
-    public static boolean debug = false;
+    public enum Category {
+        // Whole map dumps at the start of each epoch
+        EPOCH,
+        BIRTH,
+        DEATH
+    }
 
-    public static void print(Object s) {
-        if (debug) {
-            System.out.print("[DEBUG] ");
+    public enum Level {
+        OFF,
+        INFO,
+        TRACE
+    }
+
+    private static boolean debug = false;
+
+    // Most verbose level printed for each category
+    private static final Level[] levels = new Level[Category.values().length];
+
+    static {
+        Arrays.fill(levels, Level.TRACE);
+    }
+
+    // PRIVATE METHODS
+    private static void write(String s, boolean newline) {
+        if (!debug) {
+            return;
+        }
+        System.out.print("[DEBUG] ");
+        if (newline) {
+            System.out.println(s);
+        } else {
             System.out.print(s);
         }
     }
 
+    // PUBLIC METHODS
+    /**
+     * Turn debug output on or off
+     * @param on whether debug is on
+     */
+    public static void setDebug(boolean on) {
+        debug = on;
+    }
+
+    /**
+     * Set the most verbose level printed for a category
+     * @param c category
+     * @param l level, OFF to silence the category
+     */
+    public static void setLevel(Category c, Level l) {
+        levels[c.ordinal()] = l;
+    }
+
+    /**
+     * Check whether messages of given category and level are printed
+     * @param c category
+     * @param l level
+     * @return true if debug is on and the level is within the category's level
+     */
+    public static boolean isEnabled(Category c, Level l) {
+        return debug && l.ordinal() <= levels[c.ordinal()].ordinal();
+    }
+
+    /**
+     * Print a message, without ending the line, if debug is on. Call once {@link #isEnabled} allows the message
+     * @param s message
+     */
+    public static void print(Object s) {
+        write(String.valueOf(s), false);
+    }
+
+    /**
+     * Print a message, ending the line, if debug is on. Call once {@link #isEnabled} allows the message
+     * @param s message
+     */
     public static void println(Object s) {
-        if (debug) {
-            System.out.print("[DEBUG] ");
-            System.out.println(s);
-        }
+        write(String.valueOf(s), true);
     }
 }
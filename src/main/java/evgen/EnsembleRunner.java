@@ -0,0 +1,143 @@
+package evgen;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import evgen.lib.SplitMix64;
+
+/**
+ * Runs many independent replicates of one simulation setup on a bounded thread pool.
+ * Replicate i is seeded with {@code baseSeed + i}, so every replicate can be rerun alone.
+ * Per-epoch stats of all replicates are streamed into a single CSV file as they are produced.
+ */
+public class EnsembleRunner {
+    public static final String CSV_HEADER = "run,seed,day,animalCount,foliageCount,freeFieldsCount,mostPopularGenome,avgEnergyLvl,avgLifeLength";
+
+    // PRIVATE ATTRIBUTES
+    private final Settings settings;
+    private final long baseSeed;
+    private final int runs;
+    private final int maxEpochs;
+    private final int poolSize;
+
+    private Writer out = null;
+    private int extinctRuns = 0;
+    private long totalEpochs = 0;
+    private long finalAnimals = 0;
+
+    // PRIVATE METHODS
+    private void writeEpoch(int run, long seed, StatTracker st) {
+        if (out == null) {
+            return;
+        }
+        final String line = String.join(",", Integer.toString(run), Long.toString(seed),
+            Integer.toString(st.getEpoch()), Integer.toString(st.getAnimalCount()),
+            Integer.toString(st.getFoliageCount()), Integer.toString(st.getFreeFieldsCount()),
+            String.valueOf(st.getMostPopularGenome()), Double.toString(st.getAvgEnergy()),
+            Double.toString(st.getAvgLifeLength()));
+        synchronized (out) {
+            try {
+                out.write(line);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private int runOne(int run) {
+        final long seed = baseSeed + run;
+        StatTracker st = new StatTracker();
+        st.addObserver(s -> writeEpoch(run, seed, s));
+        Simulation simulation = new Simulation(new SplitMix64(seed), settings, st, 0);
+        final int epochs = simulation.runFor(maxEpochs);
+        // Genomes of the survivors live in the pool of the replicate's own map, so they are dropped along with it
+        synchronized (this) {
+            totalEpochs += epochs;
+            finalAnimals += st.getAnimalCount();
+            if (st.getAnimalCount() == 0) {
+                ++extinctRuns;
+            }
+        }
+        return epochs;
+    }
+
+    // PUBLIC METHODS
+    /**
+     * Set up an ensemble
+     * @param s settings shared by all replicates
+     * @param baseSeed seed of the first replicate
+     * @param runs amount of replicates
+     * @param maxEpochs epoch limit of every replicate
+     * @param poolSize amount of replicates run at once
+     */
+    public EnsembleRunner(Settings s, long baseSeed, int runs, int maxEpochs, int poolSize) {
+        settings = s;
+        this.baseSeed = baseSeed;
+        this.runs = runs;
+        this.maxEpochs = maxEpochs;
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Run all replicates and print a summary
+     * @param csvPath file to stream per-epoch stats to, null for no output
+     * @return total amount of epochs run, summed over replicates
+     * @throws IOException if writing the output fails
+     */
+    public long run(Path csvPath) throws IOException {
+        if (csvPath != null) {
+            BufferedWriter w = Files.newBufferedWriter(csvPath);
+            w.write(CSV_HEADER);
+            w.write('\n');
+            out = w;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+        final long start = System.nanoTime();
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>(runs);
+            for (int i = 0; i < runs; ++i) {
+                final int run = i;
+                tasks.add(() -> runOne(run));
+            }
+            for (Future<Integer> f : pool.invokeAll(tasks)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ensemble interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(String.format("runs=%d extinct=%d epochs=%d avgAnimals=%.2f time=%.3fs sim-epochs/s=%.1f",
+            runs, extinctRuns, totalEpochs, (double) finalAnimals / runs, seconds, totalEpochs / seconds));
+        return totalEpochs;
+    }
+}
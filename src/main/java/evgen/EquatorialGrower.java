@@ -1,6 +1,6 @@
 package evgen;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 import evgen.lib.Pair;
 
@@ -18,13 +18,13 @@ public class EquatorialGrower extends AbstractFoliageGrower {
                 currY = midY + diffY;
                 diffY = (diffY < 0) ? -diffY + 1 : -diffY;
             }
-            preferredSpots.add(new Vector2d(currX, currY));
+            preferredSpots.add(toCell(new Vector2d(currX, currY)));
             ++currX;
             --preferredCounter;
         }
     }
 
-    public EquatorialGrower(Random r, Settings s, IWorldMap m) {
+    public EquatorialGrower(RandomGenerator r, Settings s, IWorldMap m) {
         super(r, s, m);
     }
 
@@ -33,4 +33,6 @@ public class EquatorialGrower extends AbstractFoliageGrower {
     // }
 
     public void animalDiedAt(Vector2d pos) {};
+
+    public void animalDiedAt(int cell) {};
 }
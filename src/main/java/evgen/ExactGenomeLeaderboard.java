@@ -0,0 +1,67 @@
+package evgen;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import evgen.lib.FrequencyCounter;
+import evgen.lib.Pair;
+
+/**
+ * Leaderboard keeping an exact count for every living genome.
+ * Memory grows with the amount of distinct genomes.
+ */
+public class ExactGenomeLeaderboard implements IGenomeLeaderboard {
+    private final FrequencyCounter<Genome> counter = new FrequencyCounter<>();
+
+    @Override
+    public void genomeAdded(Genome genome) {
+        counter.increment(genome);
+    }
+
+    @Override
+    public void genomeRemoved(Genome genome) {
+        counter.decrement(genome);
+    }
+
+    @Override
+    public int count(Genome genome) {
+        return counter.count(genome);
+    }
+
+    @Override
+    public Genome getMostPopular() {
+        return counter.getMostFrequent();
+    }
+
+    @Override
+    public List<Pair<Genome, Integer>> getTop(int n) {
+        List<Pair<Genome, Integer>> l = new ArrayList<>();
+        for (final Genome g : counter.getTop(n)) {
+            l.add(new Pair<>(g, counter.count(g)));
+        }
+        return l;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        final List<Genome> all = counter.getTop(counter.size());
+        out.writeInt(all.size());
+        for (final Genome g : all) {
+            g.writeTo(out);
+            out.writeInt(counter.count(g));
+        }
+    }
+
+    @Override
+    public void readState(DataInput in, GenomePool pool) throws IOException {
+        counter.clear();
+        final int size = in.readInt();
+        for (int i = 0; i < size; ++i) {
+            final Genome g = Genome.readFrom(in, pool);
+            counter.put(g, in.readInt());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package evgen;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Immutable gene sequence, shared by all genotypes carrying the same genes.
+ * Genes are 0..7, packed 3 bits each into longs; the topmost bit of every word is unused.
+ * Instances handed out by {@link GenomePool} are canonical, so they may be compared by identity.
+ */
+public final class Genome {
+    static final int BITS_PER_GENE = 3;
+    static final int GENES_PER_WORD = Long.SIZE / BITS_PER_GENE;
+    static final long GENE_MASK = (1L << BITS_PER_GENE) - 1;
+
+    // PRIVATE ATTRIBUTES
+    private final long[] words;
+    private final int length;
+    private final int hash;
+
+    // Amount of genotypes pointing at this genome, guarded by the pool
+    int refCount = 0;
+
+    // PACKAGE-PRIVATE METHODS
+    /**
+     * Get amount of words needed to store a genome of given length
+     * @param length amount of genes
+     * @return amount of longs
+     */
+    static int wordCount(int length) {
+        return (length + GENES_PER_WORD - 1) / GENES_PER_WORD;
+    }
+
+    static int getGene(long[] words, int i) {
+        return (int)(words[i / GENES_PER_WORD] >>> (BITS_PER_GENE * (i % GENES_PER_WORD)) & GENE_MASK);
+    }
+
+    static void setGene(long[] words, int i, int gene) {
+        final int shift = BITS_PER_GENE * (i % GENES_PER_WORD);
+        final int w = i / GENES_PER_WORD;
+        words[w] = (words[w] & ~(GENE_MASK << shift)) | ((long)gene << shift);
+    }
+
+    /**
+     * Copy genes with indices from {@code from} to {@code to}-1 between packed genomes, a word at a time
+     */
+    static void copyGenes(long[] src, long[] dst, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        final int lastWord = (to - 1) / GENES_PER_WORD;
+        for (int w = from / GENES_PER_WORD; w <= lastWord; ++w) {
+            final int lo = Math.max(from - w * GENES_PER_WORD, 0);
+            final int hi = Math.min(to - w * GENES_PER_WORD, GENES_PER_WORD);
+            final long mask = ((1L << (BITS_PER_GENE * (hi - lo))) - 1) << (BITS_PER_GENE * lo);
+            dst[w] = (dst[w] & ~mask) | (src[w] & mask);
+        }
+    }
+
+    /**
+     * Read a genome written by {@link #writeTo(DataOutput)}, without taking a reference to it in the pool
+     * @param in input to read from
+     * @param pool pool to look the genome up in
+     * @return canonical genome if some genotype carries these genes, see {@link GenomePool#find(long[], int)}
+     * @throws IOException if reading fails
+     */
+    static Genome readFrom(DataInput in, GenomePool pool) throws IOException {
+        final int length = in.readInt();
+        final long[] words = new long[wordCount(length)];
+        for (int i = 0; i < words.length; ++i) {
+            words[i] = in.readLong();
+        }
+        return pool.find(words, length);
+    }
+
+    /**
+     * Write length and packed genes to a checkpoint
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(length);
+        for (final long w : words) {
+            out.writeLong(w);
+        }
+    }
+
+    /**
+     * Wrap packed words into a genome. The array must not be modified afterwards.
+     * @param w packed genes
+     * @param len amount of genes
+     */
+    Genome(long[] w, int len) {
+        words = w;
+        length = len;
+        hash = 31 * Arrays.hashCode(words) + length;
+    }
+
+    /**
+     * Get a modifiable copy of the packed genes
+     * @return copy of the words
+     */
+    long[] copyWords() {
+        return words.clone();
+    }
+
+    /**
+     * Copy genes with indices from {@code from} to {@code to}-1 of this genome into packed words
+     * @param dst words to copy into
+     * @param from first index
+     * @param to index after the last one
+     */
+    void copyGenesInto(long[] dst, int from, int to) {
+        copyGenes(words, dst, from, to);
+    }
+
+    // PUBLIC METHODS
+    public int getGene(int i) {
+        return getGene(words, i);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Append genes to a builder, one digit per gene -- same as toString, without the intermediate string
+     * @param s builder to append to
+     * @return s
+     */
+    public StringBuilder appendTo(StringBuilder s) {
+        for (int i = 0; i < length; ++i) {
+            s.append((char)('0' + getGene(i)));
+        }
+        return s;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(length)).toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Genome)) {
+            return false;
+        }
+        final Genome other = (Genome) obj;
+        return other.hash == this.hash && other.length == this.length && Arrays.equals(other.words, this.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
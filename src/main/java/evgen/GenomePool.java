@@ -0,0 +1,67 @@
+package evgen;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interning pool of genomes. Every distinct gene sequence is stored once and shared
+ * by all genotypes carrying it; a genome leaves the pool when its last genotype is released.
+ * Every map owns a pool of its own, so simulations do not contend on it,
+ * and genomes of animals still alive when a simulation is dropped go away along with it.
+ * Thread-safe.
+ */
+public class GenomePool {
+    private final Map<Genome, Genome> genomes = new HashMap<>();
+
+    /**
+     * Construct an empty pool
+     */
+    public GenomePool() {}
+
+    /**
+     * Get the canonical genome with given genes and take a reference to it
+     * @param words packed genes, must not be modified afterwards
+     * @param length amount of genes
+     * @return canonical genome
+     */
+    public synchronized Genome intern(long[] words, int length) {
+        final Genome candidate = new Genome(words, length);
+        Genome g = genomes.putIfAbsent(candidate, candidate);
+        if (g == null) {
+            g = candidate;
+        }
+        ++g.refCount;
+        return g;
+    }
+
+    /**
+     * Get the canonical genome with given genes without taking a reference to it
+     * @param words packed genes, must not be modified afterwards
+     * @param length amount of genes
+     * @return canonical genome, or a new one outside the pool if no genotype carries these genes
+     */
+    public synchronized Genome find(long[] words, int length) {
+        final Genome candidate = new Genome(words, length);
+        final Genome g = genomes.get(candidate);
+        return (g != null) ? g : candidate;
+    }
+
+    /**
+     * Drop a reference to a canonical genome, removing it from the pool if it was the last one
+     * @param g genome obtained from {@link #intern(long[], int)}
+     */
+    public synchronized void release(Genome g) {
+        assert g.refCount > 0 : "Genome released more times than interned";
+        if (--g.refCount == 0) {
+            genomes.remove(g);
+        }
+    }
+
+    /**
+     * Get amount of distinct genomes currently in the pool
+     * @return amount of genomes
+     */
+    public synchronized int size() {
+        return genomes.size();
+    }
+}
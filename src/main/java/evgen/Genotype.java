@@ -1,38 +1,48 @@
 package evgen;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.random.RandomGenerator;
+
+import evgen.lib.IndexSampler;
 
 public class Genotype {
     public final int genotypeLength;
     private final boolean stepMutations;
     private final boolean crazyBehaviour;
 
-    private final Random rng;
+    private final RandomGenerator rng;
     private final Settings settings;
+    private final GenomePool pool;
 
-    private int[] genome;
-    private int nextGeneIndex;
+    // Shared with all other genotypes carrying the same genes
+    private final Genome genome;
+    private boolean released = false;
+    // Gene the owner starts reading at; owners keep track of the current gene themselves
+    private final int firstGeneIndex;
 
     /**
      * Create a new genotype -- length, mutation variant and behaviour variant
      * as in the provided settings; use provided RNG
-     * @param r Random object to use as RNG
+     * @param r RNG to use
      * @param s Settings object to use as settings
+     * @param p pool to intern the genome in
      */
-    public Genotype(Random r, Settings s) {
+    public Genotype(RandomGenerator r, Settings s, GenomePool p) {
         rng = r;
         settings = s;
+        pool = p;
         genotypeLength = settings.getGenomeLength();
         stepMutations = settings.getMutationType() == Settings.MutationType.STEP;
         crazyBehaviour = settings.getBehaviourType() == Settings.BehaviourType.CRAZY;
-        nextGeneIndex = rng.nextInt(genotypeLength);
-        genome = new int[genotypeLength];
+        firstGeneIndex = rng.nextInt(genotypeLength);
+        final long[] words = new long[Genome.wordCount(genotypeLength)];
 
         for (int i = 0; i < genotypeLength; ++i) {
-            genome[i] = rng.nextInt(MapDirection.directionCount);
+            Genome.setGene(words, i, rng.nextInt(MapDirection.directionCount));
         }
+        genome = pool.intern(words, genotypeLength);
     }
 
     /**
@@ -44,89 +54,154 @@ public class Genotype {
     // }
 
     /**
-     * Create a child's genome from two parent's genomes
+     * Create a child's genome from two parent's genomes, use RNG of the first parent
      * @param pg1 Genome of first parent
      * @param pg2 Genome of second parent
      * @param ratio Ratio to mix genes at (pg1.energy/(pg1.energy+pg2.energy))
      */
     public Genotype(Genotype pg1, Genotype pg2, double ratio) {
-        rng = pg1.rng;
+        this(pg1.rng, pg1, pg2, ratio);
+    }
+
+    /**
+     * Create a child's genome from two parent's genomes
+     * @param r RNG to use, both for crossover and later by the child
+     * @param pg1 Genome of first parent
+     * @param pg2 Genome of second parent
+     * @param ratio Ratio to mix genes at (pg1.energy/(pg1.energy+pg2.energy))
+     */
+    public Genotype(RandomGenerator r, Genotype pg1, Genotype pg2, double ratio) {
+        rng = r;
         settings = pg1.settings;
+        pool = pg1.pool;
         genotypeLength = pg1.genotypeLength;
         stepMutations = pg1.stepMutations;
         crazyBehaviour = pg1.crazyBehaviour;
-        nextGeneIndex = rng.nextInt(genotypeLength);
-        genome = new int[genotypeLength];
+        firstGeneIndex = rng.nextInt(genotypeLength);
 
         // randomise side from which we take the genome
         final boolean switchSides = rng.nextBoolean();
 
         // find index at which to cut the genome
         final int cut = switchSides ? genotypeLength-(int)(ratio * genotypeLength) : (int)(ratio * genotypeLength);
-        Debug.println(String.format("switchSides=%s cut=%d ratio=%f", switchSides, cut, ratio));
-        for (int i = switchSides ? cut : 0; i < (switchSides ? genotypeLength : cut); ++i) {
-            genome[i] = pg1.genome[i];
-        }
-        for (int i = switchSides ? 0 : cut; i < (switchSides ? cut : genotypeLength); ++i) {
-            genome[i] = pg2.genome[i];
+        if (Debug.isEnabled(Debug.Category.BIRTH, Debug.Level.TRACE)) {
+            Debug.println(String.format("switchSides=%s cut=%d ratio=%f", switchSides, cut, ratio));
         }
+        // start from the second parent, then overwrite the first parent's part
+        final long[] words = pg2.genome.copyWords();
+        pg1.genome.copyGenesInto(words, switchSides ? cut : 0, switchSides ? genotypeLength : cut);
 
         int mutationAmount = settings.getMinMutations();
         if (settings.getMinMutations() < settings.getMaxMutations()) {
             mutationAmount = rng.nextInt(settings.getMinMutations(), settings.getMaxMutations()+1);
         }
 
-        List<Integer> mutationIndices = GenotypeMutationIndexGenerator.getInstance().pollRandomSeveral(genotypeLength, mutationAmount);
-        for (final int mutationIndex : mutationIndices) {
+        final int[] mutationIndices = IndexSampler.sample(rng, genotypeLength, mutationAmount);
+        for (int i = 0; i < mutationAmount; ++i) {
+            final int mutationIndex = mutationIndices[i];
             if (!stepMutations) {
                 int g;
                 do {
                     g = rng.nextInt(MapDirection.directionCount);
-                } while (g == genome[mutationIndex]);
-                genome[mutationIndex] = g;
+                } while (g == Genome.getGene(words, mutationIndex));
+                Genome.setGene(words, mutationIndex, g);
             } else {
-                final int g = genome[mutationIndex] + (rng.nextBoolean() ? 1 : -1);
-                genome[mutationIndex] = (g+8) % MapDirection.directionCount;
+                final int g = Genome.getGene(words, mutationIndex) + (rng.nextBoolean() ? 1 : -1);
+                Genome.setGene(words, mutationIndex, (g+8) % MapDirection.directionCount);
             }
         }
+        genome = pool.intern(words, genotypeLength);
+    }
+
+    /**
+     * Restore a genotype written by {@link #writeState(DataOutput)}
+     * @param r RNG to use, the same as before the checkpoint
+     * @param s Settings object to use as settings
+     * @param p pool to intern the genome in
+     * @param in input to read from
+     * @throws IOException if reading fails
+     */
+    public Genotype(RandomGenerator r, Settings s, GenomePool p, DataInput in) throws IOException {
+        rng = r;
+        settings = s;
+        pool = p;
+        genotypeLength = settings.getGenomeLength();
+        stepMutations = settings.getMutationType() == Settings.MutationType.STEP;
+        crazyBehaviour = settings.getBehaviourType() == Settings.BehaviourType.CRAZY;
+        // Animals keep their own gene cursor, restored along with them
+        firstGeneIndex = 0;
+        final long[] words = new long[Genome.wordCount(genotypeLength)];
+        for (int i = 0; i < words.length; ++i) {
+            words[i] = in.readLong();
+        }
+        genome = pool.intern(words, genotypeLength);
+    }
+
+    /**
+     * Write genes to a checkpoint
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    public void writeState(DataOutput out) throws IOException {
+        for (final long w : genome.copyWords()) {
+            out.writeLong(w);
+        }
     }
 
     @Override
     public String toString() {
-        StringBuilder s = new StringBuilder();
-        for (final int gene : genome) {
-            s.append(gene);
-        }
-        return s.toString();
+        return genome.toString();
     }
 
     /**
-     * Get next direction from genome (perhaps mutated), advance to next gene
+     * Get gene at given index
+     * @param index
      * @return direction -- difference to add to current animal direction
      */
-    public int nextDirection() {
-        int dir = genome[nextGeneIndex];
+    public int getGene(int index) {
+        return genome.getGene(index);
+    }
+
+    /**
+     * Get index of the gene to read after the one at given index
+     * @param index index of the gene just read
+     * @return next gene index
+     */
+    public int advanceGeneIndex(int index) {
         // 20% chance to go to a random gene if crazyBehaviour enabled
         if (crazyBehaviour && rng.nextInt(5) == 0) {
-            nextGeneIndex = rng.nextInt(genotypeLength);
-        } else {
-            ++nextGeneIndex;
-            if (nextGeneIndex == genotypeLength) {
-                nextGeneIndex = 0;
-            }
+            return rng.nextInt(genotypeLength);
         }
-        return dir;
+        ++index;
+        return (index == genotypeLength) ? 0 : index;
     }
 
     @Override
     public boolean equals(Object obj) {
-        return ((obj instanceof Genotype) && Arrays.equals(((Genotype) obj).genome, this.genome));
+        if (!(obj instanceof Genotype)) {
+            return false;
+        }
+        // Genomes are interned, so equal genes mean the same genome
+        return ((Genotype) obj).genome == this.genome;
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(genome);
+        return genome.hashCode();
+    }
+
+    /**
+     * Drop this genotype's reference to its shared genome, once the owner is gone.
+     * Further calls have no effect.
+     */
+    public void release() {
+        if (!released) {
+            released = true;
+            pool.release(genome);
+        }
     }
 
-    public int getNextGeneIndex() { return nextGeneIndex; }
+    public Genome getGenome() { return genome; }
+
+    public int getFirstGeneIndex() { return firstGeneIndex; }
 }
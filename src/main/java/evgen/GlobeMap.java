@@ -1,15 +1,13 @@
 package evgen;
 
-import java.util.Random;
-
-import evgen.lib.Pair;
+import java.util.random.RandomGenerator;
 
 public class GlobeMap extends AbstractWorldMap {
-    public GlobeMap(Random r, Settings s, StatTracker st, IFoliageGrower f) {
+    public GlobeMap(RandomGenerator r, Settings s, StatTracker st, IFoliageGrower f) {
         super(r, s, st, f);
     }
 
-    public GlobeMap(Random r, Settings s, StatTracker st) {
+    public GlobeMap(RandomGenerator r, Settings s, StatTracker st) {
         super(r, s, st);
     }
 
@@ -18,23 +16,28 @@ public class GlobeMap extends AbstractWorldMap {
 //    }
 
     @Override
-    public Pair<Vector2d, MapDirection> getMoveTarget(Animal a) {
-        final Vector2d fromPos = a.getPosition();
-        final MapDirection fromDir = a.getFacing();
+    protected int resolveMove(int x, int y, MapDirection dir) {
         // Leaving map to the north/south -- stay in place, change direction
-        if ((fromPos.y == boundaryLowerLeft.y  && (fromDir == MapDirection.SOUTH || fromDir == MapDirection.SOUTHEAST || fromDir == MapDirection.SOUTHWEST)) ||
-            (fromPos.y == boundaryUpperRight.y && (fromDir == MapDirection.NORTH || fromDir == MapDirection.NORTHEAST || fromDir == MapDirection.NORTHWEST))) {
-            return new Pair<>(fromPos, fromDir.updateDirection(4));
+        if ((y == boundaryLowerLeft.y  && (dir == MapDirection.SOUTH || dir == MapDirection.SOUTHEAST || dir == MapDirection.SOUTHWEST)) ||
+            (y == boundaryUpperRight.y && (dir == MapDirection.NORTH || dir == MapDirection.NORTHEAST || dir == MapDirection.NORTHWEST))) {
+            return packMove(x, y, dir.updateDirection(4).facing);
         }
+        final int dy = MapDirection.dy(dir.facing);
         // Leaving map to the west -- appear at east end
-        if (fromPos.x == boundaryLowerLeft.x && (fromDir == MapDirection.WEST || fromDir == MapDirection.NORTHWEST || fromDir == MapDirection.SOUTHWEST)) {
-            return new Pair<>(new Vector2d(boundaryUpperRight.x, fromPos.add(fromDir.toUnitVector()).y), fromDir);
+        if (x == boundaryLowerLeft.x && (dir == MapDirection.WEST || dir == MapDirection.NORTHWEST || dir == MapDirection.SOUTHWEST)) {
+            return packMove(boundaryUpperRight.x, y + dy, dir.facing);
         }
         // Leaving map to the east -- appear at west end
-        if (fromPos.x == boundaryUpperRight.x && (fromDir == MapDirection.EAST || fromDir == MapDirection.NORTHEAST || fromDir == MapDirection.SOUTHEAST)) {
-            return new Pair<>(new Vector2d(boundaryLowerLeft.x, fromPos.add(fromDir.toUnitVector()).y), fromDir);
+        if (x == boundaryUpperRight.x && (dir == MapDirection.EAST || dir == MapDirection.NORTHEAST || dir == MapDirection.SOUTHEAST)) {
+            return packMove(boundaryLowerLeft.x, y + dy, dir.facing);
         }
         // Regular behaviour
-        return new Pair<>(fromPos.add(fromDir.toUnitVector()), fromDir);
+        return packMove(x + MapDirection.dx(dir.facing), y + dy, dir.facing);
+    }
+
+    @Override
+    protected int portalMove(Animal a) {
+        // Animals never leave the globe, see resolveMove
+        throw new IllegalStateException("Globe has no portals");
     }
 }
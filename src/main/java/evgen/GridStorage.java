@@ -0,0 +1,211 @@
+package evgen;
+
+import evgen.lib.IntRandomSet;
+
+/**
+ * Flat, array-backed storage of map cells.
+ * Animal containers are created lazily, plants are kept as a single flag per cell.
+ * Memory is proportional to the map's area; see {@link ChunkedGridStorage} for large maps.
+ */
+public class GridStorage implements IGridStorage {
+    // PUBLIC ATTRIBUTES
+    public final int width;
+    public final int height;
+
+    // PRIVATE ATTRIBUTES
+    private final CellAnimals[] animals;
+    private final boolean[] plants;
+    private int plantCount = 0;
+    // Dense list of occupied cells
+    private final IntRandomSet occupied;
+
+    // PRIVATE METHODS
+    private void markOccupied(int index) {
+        final boolean rc = occupied.add(index);
+        assert rc;
+    }
+
+    private void markEmpty(int index) {
+        final boolean rc = occupied.remove(index);
+        assert rc;
+    }
+
+    // PUBLIC METHODS
+    public GridStorage(int width, int height) {
+        this.width = width;
+        this.height = height;
+        animals = new CellAnimals[width * height];
+        plants = new boolean[width * height];
+        occupied = new IntRandomSet(width * height);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int size() {
+        return animals.length;
+    }
+
+    @Override
+    public int toIndex(int x, int y) {
+        return y * width + x;
+    }
+
+    @Override
+    public int toIndex(Vector2d pos) {
+        return toIndex(pos.x, pos.y);
+    }
+
+    @Override
+    public Vector2d toPosition(int index) {
+        return new Vector2d(index % width, index / width);
+    }
+
+    @Override
+    public CellAnimals animalsAt(int index) {
+        return animals[index];
+    }
+
+    @Override
+    public Animal firstAnimalAt(int index) {
+        final CellAnimals s = animals[index];
+        return (s == null || s.isEmpty()) ? null : s.first();
+    }
+
+    @Override
+    public boolean addAnimal(int index, Animal animal) {
+        CellAnimals s = animals[index];
+        if (s == null) {
+            s = new CellAnimals();
+            animals[index] = s;
+        }
+        if (!s.add(animal)) {
+            return false;
+        }
+        if (s.size() == 1) {
+            markOccupied(index);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean removeAnimal(int index, Animal animal) {
+        final CellAnimals s = animals[index];
+        if (s == null || !s.remove(animal)) {
+            return false;
+        }
+        if (s.isEmpty()) {
+            markEmpty(index);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAnimalUntracked(int index, Animal animal) {
+        CellAnimals s = animals[index];
+        if (s == null) {
+            s = new CellAnimals();
+            animals[index] = s;
+        }
+        return s.add(animal);
+    }
+
+    @Override
+    public boolean removeAnimalUntracked(int index, Animal animal) {
+        final CellAnimals s = animals[index];
+        return s != null && s.remove(animal);
+    }
+
+    @Override
+    public void updateOccupancy(int index) {
+        final CellAnimals s = animals[index];
+        final boolean isOccupied = s != null && !s.isEmpty();
+        if (isOccupied && !occupied.contains(index)) {
+            markOccupied(index);
+        } else if (!isOccupied && occupied.contains(index)) {
+            markEmpty(index);
+        }
+    }
+
+    @Override
+    public boolean containsAnimal(int index, Animal animal) {
+        final CellAnimals s = animals[index];
+        return s != null && s.contains(animal);
+    }
+
+    @Override
+    public int getOccupiedCount() {
+        return occupied.size();
+    }
+
+    @Override
+    public int getOccupiedCell(int i) {
+        return occupied.get(i);
+    }
+
+    @Override
+    public boolean hasPlant(int index) {
+        return plants[index];
+    }
+
+    @Override
+    public boolean addPlant(int index) {
+        if (plants[index]) {
+            return false;
+        }
+        plants[index] = true;
+        ++plantCount;
+        return true;
+    }
+
+    @Override
+    public boolean removePlant(int index) {
+        if (!plants[index]) {
+            return false;
+        }
+        plants[index] = false;
+        --plantCount;
+        return true;
+    }
+
+    @Override
+    public int getPlantCount() {
+        return plantCount;
+    }
+
+    @Override
+    public int getPlantCells(int[] out) {
+        int count = 0;
+        for (int cell = 0; count < plantCount; ++cell) {
+            if (plants[cell]) {
+                out[count++] = cell;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void releaseEmpty() {
+        // Everything is allocated up front
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder("{");
+        for (int i = 0; i < occupied.size(); ++i) {
+            if (i > 0) {
+                s.append(", ");
+            }
+            s.append(toPosition(occupied.get(i))).append('=').append(animals[occupied.get(i)]);
+        }
+        return s.append('}').toString();
+    }
+}
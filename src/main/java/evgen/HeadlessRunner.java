@@ -0,0 +1,178 @@
+package evgen;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import evgen.lib.SplitMix64;
+
+/**
+ * Command-line entry point running simulations without the GUI.
+ * Epochs are run back to back, with no delay and no rendering, until all animals
+ * die out or the epoch limit is reached. With more than one run, an ensemble of
+ * replicates is run on a thread pool instead, see {@link EnsembleRunner}.
+ */
+public class HeadlessRunner {
+    public static final String USAGE = String.join("\n",
+        "usage: evgen --headless [options]",
+        "  --config <path>    YAML config file (default settings if omitted)",
+        "  --seed <long>      RNG seed (random if omitted)",
+        "  --epochs <n>       epoch limit (default 1000)",
+        "  --out <dir>        directory for the stats log (no log if omitted)",
+        "  --format <fmt>     stats log format, csv or binary (default csv, ignored with --runs)",
+        "  --threads <n>      threads per simulation (default 1, ignored with --runs)",
+        "  --resume <path>    start from a checkpoint instead of epoch 0 (seed is then ignored; ignored with --runs)",
+        "  --checkpoint <path> write a checkpoint once the run is over (ignored with --runs)",
+        "  --runs <n>         amount of replicates, seeded with seed, seed+1, ... (default 1)",
+        "  --pool <n>         replicates run at once (default: amount of processors)");
+
+    // PRIVATE ATTRIBUTES
+    private String configPath = null;
+    private long seed = new SplitMix64().nextLong();
+    private int maxEpochs = 1000;
+    private String outDir = null;
+    private boolean binaryStats = false;
+    private int threads = 1;
+    private String resumePath = null;
+    private String checkpointPath = null;
+    private int runs = 1;
+    private int poolSize = Runtime.getRuntime().availableProcessors();
+
+    // PRIVATE METHODS
+    private HeadlessRunner() {}
+
+    private static String valueOf(String[] args, int i) {
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException("missing value for " + args[i]);
+        }
+        return args[i + 1];
+    }
+
+    private static int positiveInt(String[] args, int i) {
+        final int v = Integer.parseInt(valueOf(args, i));
+        if (v <= 0) {
+            throw new IllegalArgumentException(args[i] + " must be positive");
+        }
+        return v;
+    }
+
+    // PUBLIC METHODS
+    /**
+     * Parse command-line options
+     * @param args arguments, optionally starting with --headless
+     * @return runner set up according to args
+     * @throws IllegalArgumentException if arguments are malformed
+     */
+    public static HeadlessRunner fromArgs(String[] args) {
+        HeadlessRunner r = new HeadlessRunner();
+        try {
+            for (int i = 0; i < args.length; ++i) {
+                switch (args[i]) {
+                    case "--headless":
+                        continue;
+                    case "--config":
+                        r.configPath = valueOf(args, i);
+                        break;
+                    case "--seed":
+                        r.seed = Long.parseLong(valueOf(args, i));
+                        break;
+                    case "--epochs":
+                        r.maxEpochs = positiveInt(args, i);
+                        break;
+                    case "--out":
+                        r.outDir = valueOf(args, i);
+                        break;
+                    case "--format":
+                        switch (valueOf(args, i)) {
+                            case "csv" -> r.binaryStats = false;
+                            case "binary" -> r.binaryStats = true;
+                            default -> throw new IllegalArgumentException("unknown format " + valueOf(args, i));
+                        }
+                        break;
+                    case "--threads":
+                        r.threads = positiveInt(args, i);
+                        break;
+                    case "--resume":
+                        r.resumePath = valueOf(args, i);
+                        break;
+                    case "--checkpoint":
+                        r.checkpointPath = valueOf(args, i);
+                        break;
+                    case "--runs":
+                        r.runs = positiveInt(args, i);
+                        break;
+                    case "--pool":
+                        r.poolSize = positiveInt(args, i);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown option " + args[i]);
+                }
+                ++i;
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("malformed number: " + e.getMessage());
+        }
+        return r;
+    }
+
+    /**
+     * Run the simulation (or ensemble) to completion and print a summary
+     * @return amount of epochs run, summed over replicates
+     * @throws IOException if the output cannot be written, or the checkpoint to resume from cannot be read
+     * @throws IllegalArgumentException if the config cannot be loaded
+     */
+    public long run() throws IOException {
+        Settings settings = new Settings();
+        if (configPath != null && !settings.loadConfig(configPath)) {
+            throw new IllegalArgumentException("invalid config " + configPath);
+        }
+        if (outDir != null) {
+            Files.createDirectories(Path.of(outDir));
+        }
+        if (runs > 1) {
+            return new EnsembleRunner(settings, seed, runs, maxEpochs, poolSize).run(outDir != null ? Path.of(outDir, "ensemble.csv") : null);
+        }
+
+        final SplitMix64 rng = new SplitMix64(seed);
+        StatTracker statTracker = (outDir != null && !binaryStats) ? new StatTracker(outDir, 0) : new StatTracker();
+        BinaryStatsWriter statsWriter = null;
+        if (outDir != null && binaryStats) {
+            statsWriter = new BinaryStatsWriter(Path.of(outDir, "evgen0_stats.bin"));
+            statTracker.addObserver(statsWriter);
+        }
+        Simulation simulation = (resumePath != null)
+            ? Simulation.load(Path.of(resumePath), settings, statTracker, 0)
+            : new Simulation(rng, settings, statTracker, 0);
+        simulation.map.setParallelism(threads);
+
+        final long start = System.nanoTime();
+        final int epochs = simulation.runFor(maxEpochs);
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        simulation.map.setParallelism(1);
+        statTracker.close();
+        if (statsWriter != null) {
+            statsWriter.close();
+        }
+        if (checkpointPath != null) {
+            simulation.save(Path.of(checkpointPath));
+        }
+
+        final String origin = (resumePath != null) ? "resume=" + resumePath : "seed=" + seed;
+        System.out.println(String.format("%s epochs=%d animals=%d time=%.3fs epochs/s=%.1f",
+            origin, epochs, statTracker.getAnimalCount(), seconds, epochs / seconds));
+        return epochs;
+    }
+
+    public static void main(String[] args) {
+        try {
+            fromArgs(args).run();
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println(USAGE);
+            System.exit(2);
+        } catch (IOException e) {
+            System.out.println("cannot access file: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
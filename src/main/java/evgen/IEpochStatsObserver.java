@@ -0,0 +1,9 @@
+package evgen;
+
+public interface IEpochStatsObserver {
+    /**
+     * Handle the end of an epoch, once all of its stats are final.
+     * @param statTracker tracker holding stats of the epoch which just ended
+     */
+    void epochLogged(StatTracker statTracker);
+}
@@ -1,5 +1,10 @@
 package evgen;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.random.RandomGenerator;
+
 public interface IFoliageGrower {
     /**
      * Get position of next plant to grow
@@ -7,18 +12,61 @@ public interface IFoliageGrower {
      */
     Vector2d getPlantSpot();
 
+    /**
+     * Get cell index ({@code y * width + x}) of next plant to grow
+     * @return cell index, -1 if no spots available
+     */
+    int getPlantCell();
+
+    /**
+     * Get cell indices of several plants to grow at once
+     * @param amount amount of plants to grow
+     * @param out buffer for cell indices, at least amount long
+     * @return amount of cell indices written, less than amount if not enough spots are available
+     */
+    int getPlantCells(int amount, int[] out);
+
+    /**
+     * Draw how many of several plants grow at preferred spots. Every plant has an 80% chance to,
+     * so the split is binomial; growers draw it up front in {@link #getPlantCells(int, int[])}
+     * @param r random generator to draw from
+     * @param amount amount of plants
+     * @return amount of plants which should grow at preferred spots
+     */
+    static int drawPreferredAmount(RandomGenerator r, int amount) {
+        int preferred = 0;
+        for (int i = 0; i < amount; ++i) {
+            if (r.nextInt(5) != 0) {
+                ++preferred;
+            }
+        }
+        return preferred;
+    }
+
     /**
      * Inform the foliage generator that a plant at a given spot has been eaten
      * @param pos
      */
     void plantEaten(Vector2d pos);
 
+    /**
+     * Inform the foliage generator that a plant in a given cell has been eaten
+     * @param cell cell index
+     */
+    void plantEaten(int cell);
+
     /**
      * Inform the foliage generator that an animal has died at a given spot
      * @param pos
      */
     void animalDiedAt(Vector2d pos);
 
+    /**
+     * Inform the foliage generator that an animal has died in a given cell
+     * @param cell cell index
+     */
+    void animalDiedAt(int cell);
+
     /**
      * Check whether a given spot is preferred (80% chance for plants to grow there)
      * @param pos
@@ -26,4 +74,19 @@ public interface IFoliageGrower {
      */
     boolean isPreferred(Vector2d pos);
     int getFreeSpotsCount();
+
+    /**
+     * Write the grower's state to a checkpoint
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    void writeState(DataOutput out) throws IOException;
+
+    /**
+     * Replace the grower's state with one written by {@link #writeState(DataOutput)}
+     * by a grower of a map with the same settings
+     * @param in input to read from
+     * @throws IOException if reading fails
+     */
+    void readState(DataInput in) throws IOException;
 }
@@ -0,0 +1,58 @@
+package evgen;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+import evgen.lib.Pair;
+
+public interface IGenomeLeaderboard {
+    /**
+     * Inform the leaderboard that an animal carrying a given genome was born
+     * @param genome
+     */
+    void genomeAdded(Genome genome);
+
+    /**
+     * Inform the leaderboard that an animal carrying a given genome has died
+     * @param genome
+     */
+    void genomeRemoved(Genome genome);
+
+    /**
+     * Get amount of living animals carrying a given genome (may be an estimate)
+     * @param genome
+     * @return amount of animals
+     */
+    int count(Genome genome);
+
+    /**
+     * Get the genome carried by the most animals
+     * @return most popular genome, null if there are no animals
+     */
+    Genome getMostPopular();
+
+    /**
+     * Get up to n most popular genomes along with their counts, in descending order of count
+     * @param n amount of genomes to get
+     * @return list of pairs of genome and count
+     */
+    List<Pair<Genome, Integer>> getTop(int n);
+
+    /**
+     * Write the leaderboard to a checkpoint, along with the order of genomes of equal counts
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    void writeState(DataOutput out) throws IOException;
+
+    /**
+     * Replace the leaderboard's state with one written by {@link #writeState(DataOutput)}
+     * by a leaderboard of the same kind and size; genotypes of living animals must be restored first
+     * @param in input to read from
+     * @param pool pool holding genomes of the restored animals
+     * @throws IOException if reading fails
+     */
+    void readState(DataInput in, GenomePool pool) throws IOException;
+}
@@ -0,0 +1,156 @@
+package evgen;
+
+/**
+ * Storage of map cells: animals and plants present in each cell.
+ * Cells are indexed by {@code y * width + x}.
+ * Cells holding at least one animal are additionally tracked in an occupied cell list,
+ * so that they can be visited without scanning the whole grid.
+ */
+public interface IGridStorage {
+    int getWidth();
+    int getHeight();
+
+    /**
+     * Get total amount of cells
+     * @return width * height
+     */
+    int size();
+
+    /**
+     * Get index of cell at given coordinates
+     * @param x
+     * @param y
+     * @return cell index
+     */
+    int toIndex(int x, int y);
+
+    /**
+     * Get index of cell at given position
+     * @param pos
+     * @return cell index
+     */
+    int toIndex(Vector2d pos);
+
+    /**
+     * Get position of cell with given index
+     * @param index
+     * @return position
+     */
+    Vector2d toPosition(int index);
+
+    /**
+     * Get animals present in a cell
+     * @param index cell index
+     * @return animals, strongest first; may be null if no animal ever entered the cell
+     */
+    CellAnimals animalsAt(int index);
+
+    /**
+     * Get the first (strongest) animal in a cell
+     * @param index cell index
+     * @return animal, null if the cell is empty
+     */
+    Animal firstAnimalAt(int index);
+
+    /**
+     * Add an animal to a cell
+     * @param index cell index
+     * @param animal
+     * @return false if the animal was already present, true otherwise
+     */
+    boolean addAnimal(int index, Animal animal);
+
+    /**
+     * Remove an animal from a cell
+     * @param index cell index
+     * @param animal
+     * @return true if the animal was present, false otherwise
+     */
+    boolean removeAnimal(int index, Animal animal);
+
+    /**
+     * Add an animal to a cell without updating the occupied cell list.
+     * Cells only share the occupied cell list, so this may be called concurrently for distinct cells;
+     * {@link #updateOccupancy(int)} must be called for the cell before the list is used again.
+     * @param index cell index
+     * @param animal
+     * @return false if the animal was already present, true otherwise
+     */
+    boolean addAnimalUntracked(int index, Animal animal);
+
+    /**
+     * Remove an animal from a cell without updating the occupied cell list.
+     * See {@link #addAnimalUntracked(int, Animal)}.
+     * @param index cell index
+     * @param animal
+     * @return true if the animal was present, false otherwise
+     */
+    boolean removeAnimalUntracked(int index, Animal animal);
+
+    /**
+     * Bring the occupied cell list up to date with the contents of a cell
+     * @param index cell index
+     */
+    void updateOccupancy(int index);
+
+    /**
+     * Check whether an animal is present in a cell
+     * @param index cell index
+     * @param animal
+     * @return true if present, false otherwise
+     */
+    boolean containsAnimal(int index, Animal animal);
+
+    /**
+     * Get amount of cells holding at least one animal
+     * @return occupied cell count
+     */
+    int getOccupiedCount();
+
+    /**
+     * Get i-th occupied cell. Order is arbitrary and changes as cells are vacated,
+     * so the occupied cell set must not change while iterating.
+     * @param i position in the occupied cell list, between 0 and {@code getOccupiedCount()}-1
+     * @return cell index
+     */
+    int getOccupiedCell(int i);
+
+    /**
+     * Check whether a cell has a plant
+     * @param index cell index
+     * @return true if a plant grows in the cell, false otherwise
+     */
+    boolean hasPlant(int index);
+
+    /**
+     * Grow a plant in a cell
+     * @param index cell index
+     * @return false if the cell already had a plant, true otherwise
+     */
+    boolean addPlant(int index);
+
+    /**
+     * Remove a plant from a cell
+     * @param index cell index
+     * @return true if the cell had a plant, false otherwise
+     */
+    boolean removePlant(int index);
+
+    /**
+     * Get amount of plants present on the grid
+     * @return plant count
+     */
+    int getPlantCount();
+
+    /**
+     * List cells with plants, in ascending order
+     * @param out buffer for cell indices, must fit {@link #getPlantCount()} of them
+     * @return amount of cells written to out
+     */
+    int getPlantCells(int[] out);
+
+    /**
+     * Give back memory held for cells which have been emptied, if the storage allocates any per region
+     */
+    void releaseEmpty();
+}
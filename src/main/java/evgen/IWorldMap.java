@@ -1,5 +1,8 @@
 package evgen;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 import evgen.lib.Pair;
 
 public interface IWorldMap {
@@ -46,12 +49,50 @@ public interface IWorldMap {
      */
     void nextEpoch();
 
+    /**
+     * Set amount of threads used to move and feed animals in each epoch.
+     * The map is then split into bands of rows processed concurrently.
+     * @param threads thread count; values below 2 process epochs sequentially on the calling thread
+     */
+    void setParallelism(int threads);
+
+    /**
+     * Write the whole state of the map -- its RNG, plants, foliage grower, animals and stats -- to a checkpoint file,
+     * overwriting any existing one. Must not be called during an epoch
+     * @param path file to write to
+     * @throws IOException if the file cannot be written
+     * @throws IllegalStateException if the map or any animal uses an RNG whose state cannot be saved;
+     * nothing is written then
+     */
+    void save(Path path) throws IOException;
+
+    /**
+     * Restore state saved by {@link #save(Path)} into a new map, built with the same settings
+     * and no animals placed yet. Epochs run afterwards go on as they would have after the save
+     * @param path file to read
+     * @throws IOException if the file cannot be read, or is not a checkpoint of a map with these settings
+     * @throws IllegalStateException if the map is not new
+     */
+    void load(Path path) throws IOException;
+
     /**
      * Get unique ID for a new animal to be added to the map
      * @return unique ID for the new animal
      */
     int getNextAnimalID();
 
+    /**
+     * Get store holding the state of animals created for this map
+     * @return animal store, null if animals should keep their state in stores of their own
+     */
+    AnimalStore getAnimalStore();
+
+    /**
+     * Get pool interning genomes of animals created for this map
+     * @return genome pool
+     */
+    GenomePool getGenomePool();
+
     /**
      * Get current value of epoch counter
      * @return current epoch
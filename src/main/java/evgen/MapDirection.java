@@ -1,14 +1,14 @@
 package evgen;
 
 public enum MapDirection {
-    NORTH(0),
-    NORTHEAST(1),
-    EAST(2),
-    SOUTHEAST(3),
-    SOUTH(4),
-    SOUTHWEST(5),
-    WEST(6),
-    NORTHWEST(7);
+    NORTH(0, 0, 1),
+    NORTHEAST(1, 1, 1),
+    EAST(2, 1, 0),
+    SOUTHEAST(3, 1, -1),
+    SOUTH(4, 0, -1),
+    SOUTHWEST(5, -1, -1),
+    WEST(6, -1, 0),
+    NORTHWEST(7, -1, 1);
 
     public static final int directionCount = 8;
 
@@ -16,31 +16,68 @@ public enum MapDirection {
         NORTH, NORTHEAST, EAST, SOUTHEAST, SOUTH, SOUTHWEST, WEST, NORTHWEST
     };
 
+    // Unit vector coordinates of each direction, indexed by facing
+    private static final int[] dx = new int[directionCount];
+    private static final int[] dy = new int[directionCount];
+    // Facing after turning, indexed by current facing and gene (turn amount)
+    private static final int[][] rotation = new int[directionCount][directionCount];
+
+    static {
+        for (final MapDirection d : intToDir) {
+            dx[d.facing] = d.unitVector.x;
+            dy[d.facing] = d.unitVector.y;
+            for (int gene = 0; gene < directionCount; ++gene) {
+                rotation[d.facing][gene] = (d.facing + gene) % directionCount;
+            }
+        }
+    }
+
     public static MapDirection fromInt(int dir) {
         return intToDir[dir];
     }
 
+    /**
+     * Get x coordinate of the unit vector of a direction, without going through the enum
+     * @param facing direction as int
+     * @return -1, 0 or 1
+     */
+    public static int dx(int facing) {
+        return dx[facing];
+    }
+
+    /**
+     * Get y coordinate of the unit vector of a direction, without going through the enum
+     * @param facing direction as int
+     * @return -1, 0 or 1
+     */
+    public static int dy(int facing) {
+        return dy[facing];
+    }
+
+    /**
+     * Get facing after turning by given amount
+     * @param facing current direction as int
+     * @param diff amount to turn by, in eighths of a full turn clockwise
+     * @return new direction as int
+     */
+    public static int rotate(int facing, int diff) {
+        return rotation[facing][diff & (directionCount - 1)];
+    }
+
     public final int facing;
+    private final Vector2d unitVector;
 
-    MapDirection(int f) {
+    MapDirection(int f, int x, int y) {
         facing = f;
+        unitVector = new Vector2d(x, y);
     }
 
     public Vector2d toUnitVector() {
-        return switch(this) {
-            case NORTH     -> new Vector2d(0, 1);
-            case NORTHEAST -> new Vector2d(1, 1);
-            case EAST      -> new Vector2d(1, 0);
-            case SOUTHEAST -> new Vector2d(1, -1);
-            case SOUTH     -> new Vector2d(0, -1);
-            case SOUTHWEST -> new Vector2d(-1, -1);
-            case WEST      -> new Vector2d(-1, 0);
-            case NORTHWEST -> new Vector2d(-1, 1);
-        };
+        return unitVector;
     }
 
     public MapDirection updateDirection(int diff) {
-        return intToDir[(facing + diff) % directionCount];
+        return intToDir[rotate(facing, diff)];
     }
 
     public MapDirection updateDirection(MapDirection diffDir) {
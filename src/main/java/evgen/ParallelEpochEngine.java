@@ -0,0 +1,215 @@
+package evgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+import evgen.lib.IntList;
+
+/**
+ * Multi-threaded implementation of the movement and feeding phases of an epoch.
+ * The map is split into bands of rows, each processed by a separate task on a ForkJoinPool.
+ * A band task only modifies cells belonging to its band; animals crossing band edges,
+ * occupied cell bookkeeping, eaten plants and births are handed off and applied
+ * sequentially once all tasks have finished.
+ * Band tasks draw random numbers only from the animals' own streams and hand-offs are
+ * applied in ascending cell order, so results do not depend on the amount of threads.
+ */
+class ParallelEpochEngine {
+    // More bands than threads, so that a crowded band does not stall the whole phase
+    private static final int BANDS_PER_THREAD = 4;
+
+    private final AbstractWorldMap map;
+    private final IGridStorage grid;
+    private final ForkJoinPool pool;
+    private final int bandCount;
+
+    // Per-band buffers, reused between epochs
+    private final IntList[] bandCells;
+    private final IntList[] touchedCells;
+    private final IntList[] eatenCells;
+    private final List<List<Animal>> bandAnimals = new ArrayList<>();
+    private final List<List<Animal>> crossingAnimals = new ArrayList<>();
+    private final List<List<Animal>> parents = new ArrayList<>();
+
+    // PRIVATE METHODS
+    private int bandOf(int cell) {
+        return (int)((long)(cell / grid.getWidth()) * bandCount / grid.getHeight());
+    }
+
+    private void splitOccupiedCells() {
+        for (final IntList l : bandCells) {
+            l.clear();
+        }
+        final int occupiedCount = grid.getOccupiedCount();
+        for (int i = 0; i < occupiedCount; ++i) {
+            final int cell = grid.getOccupiedCell(i);
+            bandCells[bandOf(cell)].add(cell);
+        }
+        // Bands are contiguous, so sorted bands put together give all cells in ascending order
+        for (final IntList l : bandCells) {
+            l.sort();
+        }
+    }
+
+    private void forEachBand(IntConsumer body) {
+        List<Callable<Void>> tasks = new ArrayList<>(bandCount);
+        for (int b = 0; b < bandCount; ++b) {
+            final int band = b;
+            tasks.add(() -> {
+                body.accept(band);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Epoch interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void moveBand(int band) {
+        final IntList cells = bandCells[band];
+        final IntList touched = touchedCells[band];
+        final List<Animal> animals = bandAnimals.get(band);
+        final List<Animal> crossing = crossingAnimals.get(band);
+        touched.clear();
+        animals.clear();
+        crossing.clear();
+        // Snapshot first, so that animals moving within the band are not moved twice
+        for (int i = 0; i < cells.size(); ++i) {
+            final CellAnimals s = grid.animalsAt(cells.get(i));
+            for (int j = 0; j < s.size(); ++j) {
+                animals.add(s.get(j));
+            }
+        }
+        for (final Animal a : animals) {
+            assert a.isAlive();
+            a.updateFacing();
+            final int from = grid.toIndex(a.getX(), a.getY());
+            final boolean rc = grid.removeAnimalUntracked(from, a);
+            assert rc : String.format("moveBand detected desync between animal pos and set, a=%s", a);
+            touched.add(from);
+            final int target = map.getPackedMoveTarget(a);
+            final int x = AbstractWorldMap.moveX(target);
+            final int y = AbstractWorldMap.moveY(target);
+            a.move(x, y, AbstractWorldMap.moveFacing(target));
+            final int to = grid.toIndex(x, y);
+            if (bandOf(to) == band) {
+                grid.addAnimalUntracked(to, a);
+                touched.add(to);
+            } else {
+                crossing.add(a);
+            }
+        }
+    }
+
+    private void feedBand(int band) {
+        final IntList cells = bandCells[band];
+        final IntList eaten = eatenCells[band];
+        final List<Animal> couples = parents.get(band);
+        eaten.clear();
+        couples.clear();
+        for (int i = 0; i < cells.size(); ++i) {
+            final int cell = cells.get(i);
+            final CellAnimals s = grid.animalsAt(cell);
+            // Feed strongest from spot, it stays in place; the plant itself is removed after the barrier
+            if (grid.hasPlant(cell)) {
+                s.first().eat();
+                eaten.add(cell);
+            }
+            // Two strongest procreate after the barrier
+            if (s.size() > 1) {
+                Animal first = s.first();
+                Animal second = s.second();
+                assert first.getEnergy() >= second.getEnergy() : "Second has more energy than first";
+                if (second.canProcreate()) {
+                    couples.add(first);
+                    couples.add(second);
+                }
+            }
+        }
+    }
+
+    // PACKAGE-PRIVATE METHODS
+    ParallelEpochEngine(AbstractWorldMap m, int threads) {
+        map = m;
+        grid = m.grid;
+        pool = new ForkJoinPool(threads);
+        bandCount = Math.max(1, Math.min(grid.getHeight(), threads * BANDS_PER_THREAD));
+        bandCells = new IntList[bandCount];
+        touchedCells = new IntList[bandCount];
+        eatenCells = new IntList[bandCount];
+        for (int b = 0; b < bandCount; ++b) {
+            bandCells[b] = new IntList();
+            touchedCells[b] = new IntList();
+            eatenCells[b] = new IntList();
+            bandAnimals.add(new ArrayList<>());
+            crossingAnimals.add(new ArrayList<>());
+            parents.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Update facing of all animals and move them to their targets
+     */
+    void moveAll() {
+        splitOccupiedCells();
+        forEachBand(this::moveBand);
+        // Barrier -- hand off animals which left their band, then sync occupied cells
+        for (int b = 0; b < bandCount; ++b) {
+            for (final Animal a : crossingAnimals.get(b)) {
+                final int to = grid.toIndex(a.getX(), a.getY());
+                grid.addAnimalUntracked(to, a);
+                grid.updateOccupancy(to);
+            }
+            final IntList touched = touchedCells[b];
+            for (int i = 0; i < touched.size(); ++i) {
+                grid.updateOccupancy(touched.get(i));
+            }
+        }
+    }
+
+    /**
+     * Feed strongest animal at each planted cell and let two strongest animals at each cell procreate
+     */
+    void feedAndProcreateAll() {
+        splitOccupiedCells();
+        forEachBand(this::feedBand);
+        // Barrier -- apply effects which reach outside of the band
+        for (int b = 0; b < bandCount; ++b) {
+            final IntList eaten = eatenCells[b];
+            for (int i = 0; i < eaten.size(); ++i) {
+                final int cell = eaten.get(i);
+                grid.removePlant(cell);
+                map.foliageGen.plantEaten(cell);
+            }
+            final List<Animal> couples = parents.get(b);
+            for (int i = 0; i < couples.size(); i += 2) {
+                final Animal first = couples.get(i);
+                map.procreate(grid.animalsAt(grid.toIndex(first.getX(), first.getY())), first, couples.get(i+1));
+            }
+        }
+    }
+
+    /**
+     * Stop worker threads
+     */
+    void shutdown() {
+        pool.shutdown();
+    }
+}
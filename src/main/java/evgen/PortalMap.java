@@ -1,15 +1,13 @@
 package evgen;
 
-import java.util.Random;
-
-import evgen.lib.Pair;
+import java.util.random.RandomGenerator;
 
 public class PortalMap extends AbstractWorldMap {
-    public PortalMap(Random r, Settings s, StatTracker st, IFoliageGrower f) {
+    public PortalMap(RandomGenerator r, Settings s, StatTracker st, IFoliageGrower f) {
         super(r, s, st, f);
     }
 
-    public PortalMap(Random r, Settings s, StatTracker st) {
+    public PortalMap(RandomGenerator r, Settings s, StatTracker st) {
         super(r, s, st);
     }
 
@@ -18,27 +16,31 @@ public class PortalMap extends AbstractWorldMap {
 //    }
 
     @Override
-    public Pair<Vector2d, MapDirection> getMoveTarget(Animal a) {
+    protected int resolveMove(int x, int y, MapDirection dir) {
         // Leaving map from whichever side
-        final Vector2d fromPos = a.getPosition();
-        final MapDirection fromDir = a.getFacing();
-        if ((fromPos.y == boundaryLowerLeft.y  && (fromDir == MapDirection.SOUTH || fromDir == MapDirection.SOUTHEAST || fromDir == MapDirection.SOUTHWEST)) ||
-            (fromPos.y == boundaryUpperRight.y && (fromDir == MapDirection.NORTH || fromDir == MapDirection.NORTHEAST || fromDir == MapDirection.NORTHWEST)) ||
-            (fromPos.x == boundaryLowerLeft.x  && (fromDir == MapDirection.WEST  || fromDir == MapDirection.NORTHWEST || fromDir == MapDirection.SOUTHWEST)) ||
-            (fromPos.x == boundaryUpperRight.x && (fromDir == MapDirection.EAST  || fromDir == MapDirection.NORTHEAST || fromDir == MapDirection.SOUTHEAST))) {
-            // Hellish portal hurts (this may kill the animal)
-            a.loseEnergy();
-            if (!a.isAlive()) {
-                markForDelete(a);
-            }
-
-            return new Pair<>(
-                new Vector2d(rng.nextInt(boundaryLowerLeft.x, boundaryUpperRight.x+1),
-                             rng.nextInt(boundaryLowerLeft.y, boundaryUpperRight.y+1)),
-                MapDirection.fromInt(rng.nextInt(MapDirection.directionCount))
-            );
+        if ((y == boundaryLowerLeft.y  && (dir == MapDirection.SOUTH || dir == MapDirection.SOUTHEAST || dir == MapDirection.SOUTHWEST)) ||
+            (y == boundaryUpperRight.y && (dir == MapDirection.NORTH || dir == MapDirection.NORTHEAST || dir == MapDirection.NORTHWEST)) ||
+            (x == boundaryLowerLeft.x  && (dir == MapDirection.WEST  || dir == MapDirection.NORTHWEST || dir == MapDirection.SOUTHWEST)) ||
+            (x == boundaryUpperRight.x && (dir == MapDirection.EAST  || dir == MapDirection.NORTHEAST || dir == MapDirection.SOUTHEAST))) {
+            return PORTAL;
         }
         // Regular behaviour
-        return new Pair<>(fromPos.add(fromDir.toUnitVector()), fromDir);
+        return packMove(x + MapDirection.dx(dir.facing), y + MapDirection.dy(dir.facing), dir.facing);
+    }
+
+    @Override
+    protected int portalMove(Animal a) {
+        // Hellish portal hurts (this may kill the animal). Called from parallel move tasks,
+        // so the death is only reported once the animal is deleted
+        a.drainEnergy();
+        if (!a.isAlive()) {
+            markForDelete(a);
+        }
+
+        // Destination is drawn from the animal's own stream, so that it does not depend on move order
+        final RandomGenerator r = a.getRng();
+        final int x = r.nextInt(boundaryLowerLeft.x, boundaryUpperRight.x+1);
+        final int y = r.nextInt(boundaryLowerLeft.y, boundaryUpperRight.y+1);
+        return packMove(x, y, r.nextInt(MapDirection.directionCount));
     }
 }
@@ -12,6 +12,11 @@ public class Settings {
     private static final int MAX_ALLOWED_MAP_DIMENSION    = 50;
     private static final int MAX_ALLOWED_STARTING_ANIMALS = 100;
     private static final int MAX_ALLOWED_GENOME_LENGTH    = 100;
+    private static final int MAX_ALLOWED_LEADERBOARD_SIZE = 100;
+    // Limits of the large world variant
+    private static final int LARGE_MAX_ALLOWED_MAP_DIMENSION    = 10000;
+    private static final int LARGE_MAX_ALLOWED_STARTING_ANIMALS = 10000000;
+    private static final int LARGE_MAX_ALLOWED_GENOME_LENGTH    = 1000;
 
     // VARIANT ENUM DEFINITIONS
     public enum MapType {
@@ -26,6 +31,12 @@ public class Settings {
     public enum BehaviourType {
         PREDESTINED, CRAZY
     }
+    public enum LeaderboardType {
+        EXACT, SKETCH
+    }
+    public enum WorldSizeType {
+        STANDARD, LARGE
+    }
 
     // VALUES
     private int mapWidth;
@@ -40,12 +51,15 @@ public class Settings {
     private int minMutations;
     private int maxMutations;
     private int genomeLength;
+    private int leaderboardSize;
 
     // VARIANTS
     private MapType mapType;
     private FoliageGrowthType foliageGrowthType;
     private MutationType mutationType;
     private BehaviourType behaviourType;
+    private LeaderboardType leaderboardType;
+    private WorldSizeType worldSizeType;
 
     // meta
     private boolean loadSuccessful;
@@ -67,15 +81,9 @@ public class Settings {
                 switch (category) {
                     case "map_width":
                         mapWidth = (int)val;
-                        if (mapWidth <= 0 || mapWidth > MAX_ALLOWED_MAP_DIMENSION) {
-                            return false;
-                        }
                         break;
                     case "map_height":
                         mapHeight = (int)val;
-                        if (mapHeight <= 0 || mapHeight > MAX_ALLOWED_MAP_DIMENSION) {
-                            return false;
-                        }
                         break;
                     case "starting_foliage":
                         startingFoliage = (int)val;
@@ -97,9 +105,6 @@ public class Settings {
                         break;
                     case "starting_animals":
                         startingAnimals = (int)val;
-                        if (startingAnimals < 0 || startingAnimals > MAX_ALLOWED_STARTING_ANIMALS) {
-                            return false;
-                        }
                         break;
                     case "starting_energy":
                         startingEnergy = (int)val;
@@ -133,7 +138,10 @@ public class Settings {
                         break;
                     case "genome_length":
                         genomeLength = (int)val;
-                        if (genomeLength <= 0 || genomeLength > MAX_ALLOWED_GENOME_LENGTH) {
+                        break;
+                    case "leaderboard_size":
+                        leaderboardSize = (int)val;
+                        if (leaderboardSize <= 0 || leaderboardSize > MAX_ALLOWED_LEADERBOARD_SIZE) {
                             return false;
                         }
                         break;
@@ -173,6 +181,24 @@ public class Settings {
                             return false;
                         }
                         break;
+                    case "leaderboard_variant":
+                        if (((String)val).equals("exact")) {
+                            leaderboardType = LeaderboardType.EXACT;
+                        } else if (((String)val).equals("sketch")) {
+                            leaderboardType = LeaderboardType.SKETCH;
+                        } else {
+                            return false;
+                        }
+                        break;
+                    case "world_size_variant":
+                        if (((String)val).equals("standard")) {
+                            worldSizeType = WorldSizeType.STANDARD;
+                        } else if (((String)val).equals("large")) {
+                            worldSizeType = WorldSizeType.LARGE;
+                        } else {
+                            return false;
+                        }
+                        break;
                     default:
                         return false;
                 }
@@ -181,6 +207,19 @@ public class Settings {
             return false;
         }
 
+        // Limits depend on the world size variant, which may come after the values in the file
+        final boolean large = worldSizeType == WorldSizeType.LARGE;
+        final int maxDimension = large ? LARGE_MAX_ALLOWED_MAP_DIMENSION : MAX_ALLOWED_MAP_DIMENSION;
+        if (mapWidth <= 0 || mapWidth > maxDimension || mapHeight <= 0 || mapHeight > maxDimension) {
+            return false;
+        }
+        if (startingAnimals < 0 || startingAnimals > (large ? LARGE_MAX_ALLOWED_STARTING_ANIMALS : MAX_ALLOWED_STARTING_ANIMALS)) {
+            return false;
+        }
+        if (genomeLength <= 0 || genomeLength > (large ? LARGE_MAX_ALLOWED_GENOME_LENGTH : MAX_ALLOWED_GENOME_LENGTH)) {
+            return false;
+        }
+
         if (minMutations > maxMutations || minMutations > genomeLength || maxMutations > genomeLength) {
             return false;
         }
@@ -214,10 +253,13 @@ public class Settings {
         minMutations = 0;
         maxMutations = 5;
         genomeLength = 10;
+        leaderboardSize = 5;
         mapType = MapType.GLOBE;
         foliageGrowthType = FoliageGrowthType.EQUATOR;
         mutationType = MutationType.RANDOM;
         behaviourType = BehaviourType.PREDESTINED;
+        leaderboardType = LeaderboardType.EXACT;
+        worldSizeType = WorldSizeType.STANDARD;
     }
 
     public boolean loadConfig(String configPath) {
@@ -243,9 +285,12 @@ public class Settings {
     public int getMinMutations() { return minMutations; }
     public int getMaxMutations() { return maxMutations; }
     public int getGenomeLength() { return genomeLength; }
+    public int getLeaderboardSize() { return leaderboardSize; }
     public MapType getMapType() { return mapType; }
     public FoliageGrowthType getFoliageGrowthType() { return foliageGrowthType; }
     public MutationType getMutationType() { return mutationType; }
     public BehaviourType getBehaviourType() { return behaviourType; }
+    public LeaderboardType getLeaderboardType() { return leaderboardType; }
+    public WorldSizeType getWorldSizeType() { return worldSizeType; }
     public boolean success() { return loadSuccessful; }
 }
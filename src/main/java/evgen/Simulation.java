@@ -1,35 +1,91 @@
 package evgen;
 
-import java.util.Random;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import evgen.lib.SplitMix64;
 
 public class Simulation implements Runnable {
     // PRIVATE ATTRIBUTES
-    private final Random rng;
+    private final SplitMix64 rng;
     private final Settings settings;
     public final IWorldMap map;
     private final int epochDelay;
     private final StatTracker statTracker;
 
-    // PUBLIC METHODS
-    public Simulation(Random r, Settings s, StatTracker statTracker, int epochDelay) {
+    // PRIVATE METHODS
+    /**
+     * Create a simulation with an empty map, apart from the starting foliage
+     */
+    private Simulation(SplitMix64 r, Settings s, StatTracker statTracker, int epochDelay, boolean placeAnimals) {
         rng = r;
         settings = s;
         this.statTracker = statTracker;
+        statTracker.importSettings(settings);
         map = (s.getMapType() == Settings.MapType.GLOBE) ? new GlobeMap(r, s, statTracker) : new PortalMap(r, s, statTracker);
 
-        for (int i = 0; i < s.getStartingAnimals(); ++i) {
-            boolean rc = map.place(new Animal(rng, settings, map, statTracker));
-            assert rc;
+        if (placeAnimals) {
+            for (int i = 0; i < s.getStartingAnimals(); ++i) {
+                boolean rc = map.place(new Animal(rng.split(), settings, map, statTracker));
+                assert rc;
+            }
         }
 
         this.epochDelay = epochDelay;
     }
 
+    // PUBLIC METHODS
+    /**
+     * Create a simulation with starting foliage and animals. The RNG is a {@link SplitMix64}, so that it can be checkpointed
+     */
+    public Simulation(SplitMix64 r, Settings s, StatTracker statTracker, int epochDelay) {
+        this(r, s, statTracker, epochDelay, true);
+    }
+
+    /**
+     * Restore a simulation from a checkpoint written by {@link #save(Path)}
+     * @param path checkpoint file
+     * @param s settings the checkpointed simulation was run with
+     * @param statTracker new stat tracker, to continue logging to
+     * @param epochDelay delay between epochs when run, in ms
+     * @return simulation, at the epoch it was saved at
+     * @throws IOException if the file cannot be read, or is not a checkpoint of a simulation with these settings
+     */
+    public static Simulation load(Path path, Settings s, StatTracker statTracker, int epochDelay) throws IOException {
+        // Seed is irrelevant, the state is overwritten by the checkpoint
+        Simulation simulation = new Simulation(new SplitMix64(0), s, statTracker, epochDelay, false);
+        simulation.map.load(path);
+        return simulation;
+    }
+
+    /**
+     * Write a checkpoint of the simulation, to be restored with {@link #load(Path, Settings, StatTracker, int)}.
+     * Must not be called while the simulation is running
+     * @param path file to write to
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        map.save(path);
+    }
+
+    /**
+     * Run epochs back to back, with no delay, until all animals die out or the limit is reached
+     * @param maxEpochs epoch limit
+     * @return amount of epochs run
+     */
+    public int runFor(int maxEpochs) {
+        int epochs = 0;
+        while (epochs < maxEpochs && statTracker.getAnimalCount() > 0) {
+            map.nextEpoch();
+            ++epochs;
+        }
+        return epochs;
+    }
+
     @Override
     public void run() {
         int epoch = 0;
         System.out.println(String.format("epoch %d\n%s", epoch, map));
-        statTracker.importSettings(settings);
         while (true) {
             try {
                 Thread.sleep(epochDelay);
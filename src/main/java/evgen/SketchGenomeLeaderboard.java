@@ -0,0 +1,152 @@
+package evgen;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import evgen.lib.CountMinSketch;
+import evgen.lib.Pair;
+import evgen.lib.SplitMix64;
+
+/**
+ * Leaderboard with bounded memory, for runs producing huge amounts of distinct genomes.
+ * Counts are estimated with a count-min sketch, so they may be slightly too high;
+ * only a fixed amount of heavy-hitter candidates is remembered, in a min-heap of their estimates.
+ */
+public class SketchGenomeLeaderboard implements IGenomeLeaderboard {
+    private static final int SKETCH_WIDTH = 1024;
+    private static final int SKETCH_DEPTH = 4;
+
+    private static class Candidate {
+        final Genome genome;
+        final long seq;
+        int estimate;
+
+        Candidate(Genome g, long s, int e) {
+            genome = g;
+            seq = s;
+            estimate = e;
+        }
+    }
+
+    // Lowest estimate on top; of equal ones, the newest candidate is evicted first
+    private static final Comparator<Candidate> heapOrder =
+        Comparator.<Candidate>comparingInt(c -> c.estimate).thenComparing(c -> -c.seq);
+
+    private final int capacity;
+    private final CountMinSketch sketch = new CountMinSketch(SKETCH_WIDTH, SKETCH_DEPTH);
+    private final Map<Genome, Candidate> candidates = new HashMap<>();
+    private final PriorityQueue<Candidate> heap = new PriorityQueue<>(heapOrder);
+    private long nextSeq = 0;
+
+    // PRIVATE METHODS
+    private static long hashOf(Genome genome) {
+        return SplitMix64.mix(genome.hashCode());
+    }
+
+    private void update(Genome genome, int estimate) {
+        Candidate c = candidates.get(genome);
+        if (c != null) {
+            heap.remove(c);
+            if (estimate <= 0) {
+                candidates.remove(genome);
+                return;
+            }
+            c.estimate = estimate;
+            heap.add(c);
+        } else if (estimate > 0) {
+            if (candidates.size() == capacity) {
+                if (heap.peek().estimate >= estimate) {
+                    return;
+                }
+                candidates.remove(heap.poll().genome);
+            }
+            c = new Candidate(genome, nextSeq++, estimate);
+            candidates.put(genome, c);
+            heap.add(c);
+        }
+    }
+
+    // PUBLIC METHODS
+    /**
+     * Construct an empty leaderboard
+     * @param capacity amount of heavy-hitter candidates to remember; should be a few times the amount queried
+     */
+    public SketchGenomeLeaderboard(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void genomeAdded(Genome genome) {
+        final long h = hashOf(genome);
+        sketch.add(h, 1);
+        update(genome, sketch.estimate(h));
+    }
+
+    @Override
+    public void genomeRemoved(Genome genome) {
+        final long h = hashOf(genome);
+        sketch.add(h, -1);
+        if (candidates.containsKey(genome)) {
+            update(genome, sketch.estimate(h));
+        }
+    }
+
+    @Override
+    public int count(Genome genome) {
+        return Math.max(0, sketch.estimate(hashOf(genome)));
+    }
+
+    @Override
+    public Genome getMostPopular() {
+        final List<Pair<Genome, Integer>> top = getTop(1);
+        return top.isEmpty() ? null : top.get(0).first;
+    }
+
+    @Override
+    public List<Pair<Genome, Integer>> getTop(int n) {
+        List<Candidate> sorted = new ArrayList<>(candidates.values());
+        sorted.sort(heapOrder.reversed());
+        List<Pair<Genome, Integer>> l = new ArrayList<>();
+        for (int i = 0; i < Math.min(n, sorted.size()); ++i) {
+            l.add(new Pair<>(sorted.get(i).genome, sorted.get(i).estimate));
+        }
+        return l;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        sketch.writeTo(out);
+        out.writeLong(nextSeq);
+        out.writeInt(candidates.size());
+        for (final Candidate c : candidates.values()) {
+            c.genome.writeTo(out);
+            out.writeLong(c.seq);
+            out.writeInt(c.estimate);
+        }
+    }
+
+    @Override
+    public void readState(DataInput in, GenomePool pool) throws IOException {
+        sketch.readFrom(in);
+        nextSeq = in.readLong();
+        candidates.clear();
+        heap.clear();
+        final int size = in.readInt();
+        for (int i = 0; i < size; ++i) {
+            final Genome g = Genome.readFrom(in, pool);
+            final Candidate c = new Candidate(g, in.readLong(), in.readInt());
+            candidates.put(g, c);
+            heap.add(c);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package evgen;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Large world counterpart of {@link EquatorialGrower}, with the same preferred spots.
+ * Rows are ranked by distance from the equator (middle, one above, one below, two above...);
+ * cells in rank order form a bijection with 0..cellCount-1, the first preferredSpotAmount of which are preferred,
+ * so preferred and regular cells can be drawn without storing them.
+ */
+public class SparseEquatorialGrower extends AbstractSparseFoliageGrower {
+    private final int midY;
+
+    // PRIVATE METHODS
+    private int rowRank(int y) {
+        final int d = y - midY;
+        return (d > 0) ? 2 * d - 1 : -2 * d;
+    }
+
+    private int rankedCell(int rank) {
+        final int r = rank / width;
+        final int y = (r % 2 == 1) ? midY + (r + 1) / 2 : midY - r / 2;
+        return y * width + rank % width;
+    }
+
+    // PROTECTED METHODS
+    @Override
+    protected boolean isPreferredCell(int cell) {
+        return rowRank(cell / width) * width + cell % width < preferredSpotAmount;
+    }
+
+    @Override
+    protected int getPreferredCount() {
+        return preferredSpotAmount;
+    }
+
+    @Override
+    protected int randomPreferredCell() {
+        return rankedCell(rng.nextInt(preferredSpotAmount));
+    }
+
+    @Override
+    protected int randomRegularCell() {
+        return rankedCell(preferredSpotAmount + rng.nextInt(cellCount - preferredSpotAmount));
+    }
+
+    @Override
+    protected int getCandidateCount(boolean preferred) {
+        return preferred ? preferredSpotAmount : cellCount - preferredSpotAmount;
+    }
+
+    @Override
+    protected int candidateCell(boolean preferred, int i) {
+        return rankedCell(preferred ? i : preferredSpotAmount + i);
+    }
+
+    // PUBLIC METHODS
+    public SparseEquatorialGrower(RandomGenerator r, Settings s, IWorldMap m) {
+        super(r, s, m);
+        midY = (m.getMapBounds().first.y + m.getMapBounds().second.y) / 2;
+    }
+
+    public void animalDiedAt(int cell) {};
+}
@@ -0,0 +1,107 @@
+package evgen;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.random.RandomGenerator;
+
+import evgen.lib.IntBucketQueue;
+import evgen.lib.IntIntHashMap;
+import evgen.lib.SparseIntRandomSet;
+
+/**
+ * Large world counterpart of {@link ToxicCorpsesGrower}. Every cell starts out preferred,
+ * so only cells which stopped being preferred (after an animal died there) are stored.
+ */
+public class SparseToxicCorpsesGrower extends AbstractSparseFoliageGrower {
+    // Amount of deaths in cells where any animal died
+    private final IntIntHashMap spotDeathCounters = new IntIntHashMap();
+    // Non-preferred cells, plain and keyed by their amount of deaths
+    private final SparseIntRandomSet notPreferredSpots = new SparseIntRandomSet();
+    private final IntBucketQueue notPreferredByDeaths = new IntBucketQueue();
+    private int maxPreferredSpotDeaths = 0;
+
+    // PROTECTED METHODS
+    @Override
+    protected boolean isPreferredCell(int cell) {
+        return !notPreferredSpots.contains(cell);
+    }
+
+    @Override
+    protected int getPreferredCount() {
+        return cellCount - notPreferredSpots.size();
+    }
+
+    @Override
+    protected int randomPreferredCell() {
+        // At least a fifth of the cells is preferred, so this takes 5 draws at most on average
+        int cell;
+        do {
+            cell = rng.nextInt(cellCount);
+        } while (notPreferredSpots.contains(cell));
+        return cell;
+    }
+
+    @Override
+    protected int randomRegularCell() {
+        return notPreferredSpots.get(rng.nextInt(notPreferredSpots.size()));
+    }
+
+    @Override
+    protected int getCandidateCount(boolean preferred) {
+        // Preferred cells are not stored, so any cell may be one
+        return preferred ? cellCount : notPreferredSpots.size();
+    }
+
+    @Override
+    protected int candidateCell(boolean preferred, int i) {
+        return preferred ? i : notPreferredSpots.get(i);
+    }
+
+    // PUBLIC METHODS
+    public SparseToxicCorpsesGrower(RandomGenerator r, Settings s, IWorldMap m) {
+        super(r, s, m);
+    }
+
+    @Override
+    public void animalDiedAt(int cell) {
+        final int currAtPos = spotDeathCounters.get(cell, 0) + 1;
+        spotDeathCounters.put(cell, currAtPos);
+        if (isPreferredCell(cell) && currAtPos > maxPreferredSpotDeaths) {
+            // Remove spot from preferred, add to notPreferred
+            notPreferredSpots.add(cell);
+            notPreferredByDeaths.add(cell, currAtPos);
+            preferenceChanged(cell, false);
+
+            // If not enough good spots, find another one in notPreferred, remove from that and add to preferred
+            if (getPreferredCount() < preferredSpotAmount) {
+                final int newPreferredCell = notPreferredByDeaths.pollRandomMin(rng);
+                assert newPreferredCell != -1 : "No spot to become preferred";
+                notPreferredSpots.remove(newPreferredCell);
+                preferenceChanged(newPreferredCell, true);
+                maxPreferredSpotDeaths = Math.max(spotDeathCounters.get(newPreferredCell, 0), maxPreferredSpotDeaths);
+            }
+        } else if (!isPreferredCell(cell)) {
+            // Death counters only go up by one, so the cell moves to the next bucket
+            notPreferredByDeaths.increment(cell);
+        }
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        super.writeState(out);
+        spotDeathCounters.writeTo(out);
+        notPreferredSpots.writeTo(out);
+        notPreferredByDeaths.writeTo(out);
+        out.writeInt(maxPreferredSpotDeaths);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        super.readState(in);
+        spotDeathCounters.readFrom(in);
+        notPreferredSpots.readFrom(in);
+        notPreferredByDeaths.readFrom(in);
+        maxPreferredSpotDeaths = in.readInt();
+    }
+}
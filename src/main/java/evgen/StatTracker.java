@@ -1,23 +1,37 @@
 package evgen;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
 
+import evgen.lib.AsyncTextWriter;
+import evgen.lib.Pair;
+
 public class StatTracker {
+    // Rows waiting for the writer thread, chars buffered before a write, longest time a row stays buffered
+    private static final int LOG_QUEUE_CAPACITY = 1024;
+    private static final int LOG_BUFFER_SIZE = 1 << 16;
+    private static final long LOG_FLUSH_MILLIS = 1000;
 
     private int animalCount = 0;
     private int foliageCount = 0;
     private int freeFieldsCount = 0;
-    private final HashMap<Genotype, HashSet<Integer>> genotypePopularity = new HashMap<>();
+    // Genomes are interned and cache their hash, so lookups come down to an identity check
+    private IGenomeLeaderboard genomePopularity = new ExactGenomeLeaderboard();
+    private int leaderboardSize = 1;
     private int totalEnergy = 0;
     private int totalLifeLength = 0;
     private int deathCount = 0;
     private int epoch = 0;
 
     private File logsFile = null;
-    private FileWriter fileWriter;
+    private AsyncTextWriter logWriter;
+    // Reused for every row
+    private final StringBuilder row = new StringBuilder();
+    private final List<IEpochStatsObserver> observers = new ArrayList<>();
 
     public StatTracker() {} //stat tracker not logging stats to file
     public StatTracker(String path, int statTrackerID) {    //stat tracker logging stats to file
@@ -25,10 +39,10 @@ public class StatTracker {
             this.logsFile = new File(path + "/evgen" + statTrackerID + "_logs.csv");
             try {
                 logsFile.createNewFile();
-                fileWriter = new FileWriter(logsFile);
-                fileWriter.write("day,animalCount,foliageCount,freeFieldsCount,mostPopularGenome,avgEnergyLvl,avgLifeLength");
-                fileWriter.flush();
+                logWriter = new AsyncTextWriter(new FileWriter(logsFile), LOG_QUEUE_CAPACITY, LOG_BUFFER_SIZE, LOG_FLUSH_MILLIS);
+                logWriter.write("day,animalCount,foliageCount,freeFieldsCount,mostPopularGenome,avgEnergyLvl,avgLifeLength,topGenomes");
             } catch (IOException e) {
+                logsFile = null;
                 System.out.println("invalid stat tracker csv path");
             }
         }
@@ -49,25 +63,18 @@ public class StatTracker {
         this.freeFieldsCount = freeFieldsCount;
     }
 
-    public void addGenotype(Genotype genotype, int animalID) {
-        HashSet<Integer> list = genotypePopularity.get(genotype);
-        if (list == null) {
-            list = new HashSet<>();
-            list.add(animalID);
-            genotypePopularity.put(genotype, list);
-        } else {
-            genotypePopularity.get(genotype).add(animalID);
-        }
+    public synchronized void addGenotype(Genotype genotype) {
+        genomePopularity.genomeAdded(genotype.getGenome());
     }
 
-    public void updateTotalEnergy(int energy) {
+    public synchronized void updateTotalEnergy(int energy) {
         this.totalEnergy += energy;
     }
 
-    public void animalDied(Animal animal) {
+    public synchronized void animalDied(Animal animal) {
         deathCount += 1;
         totalLifeLength += animal.getAge();
-        genotypePopularity.get(animal.genes).remove(animal.id);
+        genomePopularity.genomeRemoved(animal.genes.getGenome());
     }
 
     public int getAnimalCount() {
@@ -86,18 +93,33 @@ public class StatTracker {
         return epoch;
     }
 
-    public Genotype getMostPopularGenotype() {
-        Map.Entry<Genotype, HashSet<Integer>> max = null;
-        for (Map.Entry<Genotype, HashSet<Integer>> entry : genotypePopularity.entrySet()) {
-            if (max == null || max.getValue().size() < entry.getValue().size()) {
-                max = entry;
-            }
-        }
-        return max == null ? null : max.getKey();
+    /**
+     * Get the genome carried by the most living animals
+     * @return most popular genome, null once no animals are alive
+     */
+    public synchronized Genome getMostPopularGenome() {
+        return genomePopularity.getMostPopular();
     }
 
-    public HashSet<Integer> getMostPopularGenotypeIDs() {
-        return genotypePopularity.get(getMostPopularGenotype());
+    /**
+     * Get up to k most popular genomes with their counts, in descending order of popularity
+     * @param k amount of genomes to get
+     * @return list of pairs of genome and count
+     */
+    public synchronized List<Pair<Genome, Integer>> getTopGenomes(int k) {
+        return genomePopularity.getTop(k);
+    }
+
+    /**
+     * Get the leaderboard -- most popular genomes with their counts, as many as set in the settings
+     * @return list of pairs of genome and count
+     */
+    public List<Pair<Genome, Integer>> getTopGenomes() {
+        return getTopGenomes(leaderboardSize);
+    }
+
+    public synchronized int getGenomePopularity(Genome genome) {
+        return genomePopularity.count(genome);
     }
 
     public double getAvgEnergy() {
@@ -108,18 +130,106 @@ public class StatTracker {
         return Math.round(100.0 * totalLifeLength / deathCount) / 100.0;
     }
 
+    private void appendTopGenomes(StringBuilder sb) {
+        boolean first = true;
+        for (final Pair<Genome, Integer> p : getTopGenomes()) {
+            if (!first) {
+                sb.append(';');
+            }
+            first = false;
+            p.first.appendTo(sb).append(':').append(p.second.intValue());
+        }
+    }
+
+    public boolean addObserver(IEpochStatsObserver o) {
+        return observers.add(o);
+    }
+
+    public boolean removeObserver(IEpochStatsObserver o) {
+        return observers.remove(o);
+    }
+
     public void logEpoch() {
+        for (final IEpochStatsObserver o : observers) {
+            o.epochLogged(this);
+        }
+        if (logsFile != null) {
+            row.setLength(0);
+            row.append('\n').append(epoch).append(',').append(animalCount).append(',').append(foliageCount).append(',').append(freeFieldsCount).append(',');
+            final Genome mostPopular = getMostPopularGenome();
+            if (mostPopular != null) {
+                mostPopular.appendTo(row);
+            } else {
+                row.append("null");
+            }
+            row.append(',').append(getAvgEnergy()).append(',').append(getAvgLifeLength()).append(',');
+            appendTopGenomes(row);
+            try {
+                logWriter.write(row);
+            } catch (IOException e) {
+                System.out.println("wrong path");
+            }
+        }
+    }
+
+    /**
+     * Write out all logged stats and close the logs file; logging stops afterwards.
+     * Runs on JVM shutdown anyway, but should be called as soon as logging is over
+     */
+    public void close() {
         if (logsFile != null) {
+            logsFile = null;
             try {
-                fileWriter.write("\n" + String.join(",", Integer.toString(epoch), Integer.toString(animalCount), Integer.toString(foliageCount), Integer.toString(freeFieldsCount), getMostPopularGenotype().toString(), Double.toString(getAvgEnergy()), Double.toString(getAvgLifeLength())));
-                fileWriter.flush();
+                logWriter.close();
             } catch (IOException e) {
                 System.out.println("wrong path");
             }
         }
     }
 
-    public void importSettings(Settings settings) {
+    /**
+     * Write counters, totals and the leaderboard to a checkpoint
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    public synchronized void writeState(DataOutput out) throws IOException {
+        out.writeInt(epoch);
+        out.writeInt(animalCount);
+        out.writeInt(foliageCount);
+        out.writeInt(freeFieldsCount);
+        out.writeInt(totalEnergy);
+        out.writeInt(totalLifeLength);
+        out.writeInt(deathCount);
+        genomePopularity.writeState(out);
+    }
+
+    /**
+     * Restore counters, totals and the leaderboard written by {@link #writeState(DataOutput)}; must be called after
+     * {@link #importSettings(Settings)} and after all animals are restored
+     * @param in input to read from
+     * @param pool pool holding genomes of the restored animals
+     * @throws IOException if reading fails
+     */
+    public synchronized void readState(DataInput in, GenomePool pool) throws IOException {
+        epoch = in.readInt();
+        animalCount = in.readInt();
+        foliageCount = in.readInt();
+        freeFieldsCount = in.readInt();
+        totalEnergy = in.readInt();
+        totalLifeLength = in.readInt();
+        deathCount = in.readInt();
+        genomePopularity.readState(in, pool);
+    }
+
+    /**
+     * Import starting values and leaderboard settings; must be called before any animal is created
+     * @param settings
+     */
+    public synchronized void importSettings(Settings settings) {
+        leaderboardSize = settings.getLeaderboardSize();
+        genomePopularity = (settings.getLeaderboardType() == Settings.LeaderboardType.SKETCH)
+            ? new SketchGenomeLeaderboard(4 * leaderboardSize)
+            : new ExactGenomeLeaderboard();
         setAnimalCount(settings.getStartingAnimals());
         setFoliageCount(settings.getStartingFoliage());
         setFreeFieldsCount(settings.getMapWidth() * settings.getMapHeight() - settings.getStartingAnimals() - settings.getStartingFoliage());
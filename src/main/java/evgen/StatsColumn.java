@@ -0,0 +1,47 @@
+package evgen;
+
+/**
+ * Columns of the binary stats format, in the order they are laid out in each block
+ * (see {@link BinaryStatsWriter}). Int columns come first, so that double columns stay 8-byte aligned.
+ */
+public enum StatsColumn {
+    EPOCH(false),
+    ANIMAL_COUNT(false),
+    FOLIAGE_COUNT(false),
+    FREE_FIELDS_COUNT(false),
+    // Index in the genome dictionary, -1 if there were no animals
+    MOST_POPULAR_GENOME(false),
+    AVG_ENERGY(true),
+    AVG_LIFE_LENGTH(true);
+
+    // Sum of widths of all columns
+    public static final int rowWidth;
+
+    static {
+        int offset = 0;
+        for (final StatsColumn c : values()) {
+            c.offset = offset;
+            offset += c.width;
+        }
+        rowWidth = offset;
+    }
+
+    public final boolean isDouble;
+    // Width of a single value in bytes
+    public final int width;
+    private int offset;
+
+    StatsColumn(boolean isDouble) {
+        this.isDouble = isDouble;
+        width = isDouble ? Double.BYTES : Integer.BYTES;
+    }
+
+    /**
+     * Get position of the column within a block
+     * @param blockRows amount of rows in a block
+     * @return offset from the start of the block in bytes
+     */
+    public int offsetIn(int blockRows) {
+        return offset * blockRows;
+    }
+}
@@ -1,23 +1,27 @@
 package evgen;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
 
-import evgen.lib.RandomSet;
+import evgen.lib.IntBucketQueue;
 
 public class ToxicCorpsesGrower extends AbstractFoliageGrower {
-    private Map<Vector2d, Integer> spotDeathCounters = new HashMap<>();
-    private SortedMap<Integer, RandomSet<Vector2d>> notPreferredByDeaths = new TreeMap<>();
+    // Amount of deaths in each cell
+    private final int[] spotDeathCounters = new int[preferredSpots.capacity()];
+    // Non-preferred cells, keyed by their amount of deaths
+    private final IntBucketQueue notPreferredByDeaths = new IntBucketQueue(preferredSpots.capacity());
     private int maxPreferredSpotDeaths = 0;
 
     protected void setupPreferredSpots() {
-        preferredSpots.addAll(availableRegularSpots);
+        for (int cell = 0; cell < preferredSpots.capacity(); ++cell) {
+            preferredSpots.add(cell);
+        }
     }
 
-    public ToxicCorpsesGrower(Random r, Settings s, IWorldMap m) {
+    public ToxicCorpsesGrower(RandomGenerator r, Settings s, IWorldMap m) {
         super(r, s, m);
     }
 
@@ -26,52 +30,68 @@ public class ToxicCorpsesGrower extends AbstractFoliageGrower {
     // }
 
     @Override
-    public void animalDiedAt(Vector2d pos) {
-        int currAtPos = spotDeathCounters.getOrDefault(pos, 0) + 1;
-        spotDeathCounters.put(pos, currAtPos);
-        if (preferredSpots.contains(pos) && currAtPos > maxPreferredSpotDeaths) {
+    public void animalDiedAt(int cell) {
+        final int currAtPos = ++spotDeathCounters[cell];
+        if (preferredSpots.contains(cell) && currAtPos > maxPreferredSpotDeaths) {
             // Remove spot from preferred, add to notPreferred
-            if (availablePreferredSpots.remove(pos)) {
-                availableRegularSpots.add(pos);
-            }
-            preferredSpots.remove(pos);
-            if (!notPreferredByDeaths.containsKey(currAtPos)) {
-                notPreferredByDeaths.put(currAtPos, new RandomSet<>());
+            if (availablePreferredSpots.remove(cell)) {
+                availableRegularSpots.add(cell);
             }
-            notPreferredByDeaths.get(currAtPos).add(pos);
+            preferredSpots.remove(cell);
+            notPreferredByDeaths.add(cell, currAtPos);
 
             // If not enough good spots, find another one in notPreferred, remove from that and add to preferred
             if (preferredSpots.size() < preferredSpotAmount) {
-                RandomSet<Vector2d> s = notPreferredByDeaths.get(notPreferredByDeaths.firstKey());
-                Vector2d newPreferred = s.pollRandom(rng);
-                assert newPreferred != null : "New preferred spot is null";
-                if (s.isEmpty()) {
-                    // Death counters cannot go down, so we'll never need these sets again
-                    notPreferredByDeaths.remove(notPreferredByDeaths.firstKey());
+                final int newPreferredCell = notPreferredByDeaths.pollRandomMin(rng);
+                assert newPreferredCell != -1 : "No spot to become preferred";
+                if (availableRegularSpots.remove(newPreferredCell)) {
+                    availablePreferredSpots.add(newPreferredCell);
                 }
-                if (availableRegularSpots.remove(newPreferred)) {
-                    availablePreferredSpots.add(newPreferred);
-                }
-                preferredSpots.add(newPreferred);
-                maxPreferredSpotDeaths = Math.max(spotDeathCounters.getOrDefault(newPreferred, 0), maxPreferredSpotDeaths);
+                preferredSpots.add(newPreferredCell);
+                maxPreferredSpotDeaths = Math.max(spotDeathCounters[newPreferredCell], maxPreferredSpotDeaths);
             }
+        } else if (!preferredSpots.contains(cell)) {
+            // Death counters only go up by one, so the cell moves to the next bucket
+            notPreferredByDeaths.increment(cell);
         }
+    }
 
-        // Update notPreferredByDeaths
-        if (!preferredSpots.contains(pos)) {
-            RandomSet<Vector2d> s = notPreferredByDeaths.get(currAtPos-1);
-            if (s != null) {
-                s.remove(pos);
-                if (s.isEmpty()) {
-                    // Death counters cannot go down, so we'll never need these sets again
-                    notPreferredByDeaths.remove(currAtPos-1);
-                }
-            }
+    @Override
+    public void animalDiedAt(Vector2d pos) {
+        animalDiedAt(toCell(pos));
+    }
 
-            if (!notPreferredByDeaths.containsKey(currAtPos)) {
-                notPreferredByDeaths.put(currAtPos, new RandomSet<>());
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        super.writeState(out);
+        // Only cells where anything died, as cell-count pairs
+        int deathSpots = 0;
+        for (final int deaths : spotDeathCounters) {
+            if (deaths > 0) {
+                ++deathSpots;
+            }
+        }
+        out.writeInt(deathSpots);
+        for (int cell = 0; cell < spotDeathCounters.length; ++cell) {
+            if (spotDeathCounters[cell] > 0) {
+                out.writeInt(cell);
+                out.writeInt(spotDeathCounters[cell]);
             }
-            notPreferredByDeaths.get(currAtPos).add(pos);
         }
+        notPreferredByDeaths.writeTo(out);
+        out.writeInt(maxPreferredSpotDeaths);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        super.readState(in);
+        Arrays.fill(spotDeathCounters, 0);
+        final int deathSpots = in.readInt();
+        for (int i = 0; i < deathSpots; ++i) {
+            final int cell = in.readInt();
+            spotDeathCounters[cell] = in.readInt();
+        }
+        notPreferredByDeaths.readFrom(in);
+        maxPreferredSpotDeaths = in.readInt();
     }
 }
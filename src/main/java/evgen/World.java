@@ -1,16 +1,21 @@
 package evgen;
 
 import evgen.gui.App;
+import evgen.lib.SplitMix64;
 import javafx.application.Application;
 
-import java.util.Random;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
 
 public class World {
-    public static Random rng;
+    public static RandomGenerator rng;
 
     public static void main(String[] args) {
-        rng = new Random();
-        GenotypeMutationIndexGenerator.init(rng);
+        if (Arrays.asList(args).contains("--headless")) {
+            HeadlessRunner.main(args);
+            return;
+        }
+        rng = new SplitMix64();
         Application.launch(App.class, args);
     }
 }
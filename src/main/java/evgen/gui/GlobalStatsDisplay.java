@@ -1,6 +1,8 @@
 package evgen.gui;
 
+import evgen.Genome;
 import evgen.StatTracker;
+import evgen.lib.Pair;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
 
@@ -14,12 +16,13 @@ public class GlobalStatsDisplay extends VBox {
     Text mostPopularGenotype = new Text();
     Text avgEnergyLvl = new Text();
     Text avgLifeLength = new Text();
+    Text topGenotypes = new Text();
 
     public GlobalStatsDisplay(StatTracker statTracker) {
         this.statTracker = statTracker;
         Text header = new Text("Global simulation stats");
         header.setStyle("-fx-font-size: 14px; -fx-font-weight: bold");
-        this.getChildren().addAll(header, epoch, animalCount, foliageCount, freeFieldsCount, mostPopularGenotype, avgEnergyLvl, avgLifeLength);
+        this.getChildren().addAll(header, epoch, animalCount, foliageCount, freeFieldsCount, mostPopularGenotype, avgEnergyLvl, avgLifeLength, topGenotypes);
         update();
     }
 
@@ -28,9 +31,15 @@ public class GlobalStatsDisplay extends VBox {
         animalCount.setText("animal count: " + statTracker.getAnimalCount());
         foliageCount.setText("foliage count: " + statTracker.getFoliageCount());
         freeFieldsCount.setText("free fields count: " + statTracker.getFreeFieldsCount());
-        mostPopularGenotype.setText("most popular genotype: " + statTracker.getMostPopularGenotype().toString());
+        final Genome mostPopular = statTracker.getMostPopularGenome();
+        mostPopularGenotype.setText("most popular genotype: " + ((mostPopular != null) ? mostPopular : "none"));
         avgEnergyLvl.setText("average energy: " + statTracker.getAvgEnergy());
         avgLifeLength.setText("average lifespan: " + statTracker.getAvgLifeLength());
+        StringBuilder top = new StringBuilder("top genotypes:");
+        for (final Pair<Genome, Integer> p : statTracker.getTopGenomes()) {
+            top.append("\n  ").append(p.first).append(" x").append(p.second);
+        }
+        topGenotypes.setText(top.toString());
     }
 
 
@@ -1,6 +1,7 @@
 package evgen.gui;
 
 import evgen.Settings;
+import evgen.lib.SplitMix64;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -15,7 +16,6 @@ import javafx.stage.Stage;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.util.Random;
 
 public class SetupScreen {
 
@@ -190,7 +190,7 @@ public class SetupScreen {
 
         startSimulation.setOnAction(ev -> {
             if (Integer.valueOf(delayValue.getText()) >= 50) {
-                Thread simulationWindow = new Thread(new SimulationWindow(simulationCount++, new Settings(customConfigSelected ? customConfig.getAbsolutePath() : presetConfig.getAbsolutePath()), new Random(), csvDirectory != null ? csvDirectory.getAbsolutePath() : null, Integer.valueOf(delayValue.getText())));
+                Thread simulationWindow = new Thread(new SimulationWindow(simulationCount++, new Settings(customConfigSelected ? customConfig.getAbsolutePath() : presetConfig.getAbsolutePath()), new SplitMix64(), csvDirectory != null ? csvDirectory.getAbsolutePath() : null, Integer.valueOf(delayValue.getText())));
                 simulationWindow.start();
             }
         });
@@ -1,6 +1,7 @@
 package evgen.gui;
 
 import evgen.*;
+import evgen.lib.SplitMix64;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.geometry.HPos;
@@ -20,8 +21,7 @@ import javafx.util.Duration;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class SimulationWindow implements Runnable {
     private final GridPane mapGrid = new GridPane();
@@ -36,11 +36,11 @@ public class SimulationWindow implements Runnable {
     private final int mapWidth = 800;
     private final int mapHeight = 800;
     private final HashMap<String, Image> mapElementImages = new HashMap<>();
-    private HashSet<Integer> mostPopularGenotypeIDs;
+    private Genome mostPopularGenome;
     private boolean markGenotypes = false;
     private final int millisDelay;
 
-    public SimulationWindow(int simulationID, Settings settings, Random rng, String logDirPath, int millisDelay) {
+    public SimulationWindow(int simulationID, Settings settings, RandomGenerator rng, String logDirPath, int millisDelay) {
         if (!settings.success()) {
             System.out.println("Configuration loaded unsuccessfully, starting with default settings");
         }
@@ -51,7 +51,7 @@ public class SimulationWindow implements Runnable {
         map = (settings.getMapType() == Settings.MapType.GLOBE) ? new GlobeMap(rng, settings, statTracker) : new PortalMap(rng, settings, statTracker);
 
         for (int i = 0; i < settings.getStartingAnimals(); ++i) {
-            map.place(new Animal(rng, settings, map, statTracker));
+            map.place(new Animal(SplitMix64.split(rng), settings, map, statTracker));
         }
 
 
@@ -109,6 +109,10 @@ public class SimulationWindow implements Runnable {
         Stage stage = new Stage();
         stage.setTitle("evgen #" + simulationID);
         stage.setScene(scene);
+        stage.setOnHidden(e -> {
+            stop();
+            statTracker.close();
+        });
         stage.show();
         renderMap();
 
@@ -155,7 +159,7 @@ public class SimulationWindow implements Runnable {
                                 animalStatsDisplay.setAnimal(selectedAnimal);
                             }
                         });
-                        if (markGenotypes && mostPopularGenotypeIDs != null && mostPopularGenotypeIDs.contains(((Animal) object).id)) {
+                        if (markGenotypes && mostPopularGenome != null && ((Animal) object).genes.getGenome() == mostPopularGenome) {
                             markAnimalAsMostPopular(imageView);
                         }
                     }
@@ -210,7 +214,7 @@ public class SimulationWindow implements Runnable {
             map.nextEpoch();
             renderMap();
             updateStats();
-            mostPopularGenotypeIDs = statTracker.getMostPopularGenotypeIDs();
+            mostPopularGenome = statTracker.getMostPopularGenome();
         }));
         timeline.setCycleCount(Timeline.INDEFINITE);
     }
@@ -0,0 +1,179 @@
+package evgen.lib;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer handing text over to a background thread, so that the caller never waits for I/O
+ * unless it gets ahead of the disk. Text is copied into a bounded ring of reusable char buffers;
+ * the writer thread drains the ring into a buffered writer, which goes out once it fills up
+ * or once the flush interval passes, whichever comes first.
+ * Everything written is flushed on close, or on JVM shutdown if the owner never closes the writer.
+ */
+public class AsyncTextWriter {
+    private static final int INITIAL_SLOT_LENGTH = 256;
+
+    // PRIVATE ATTRIBUTES
+    private final Writer out;
+    private final long flushMillis;
+    // Ring of pending writes; slots between head and head+count-1 are filled
+    private final char[][] slots;
+    private final int[] lengths;
+    private int head = 0;
+    private int count = 0;
+    private boolean closing = false;
+    private boolean done = false;
+    private IOException error = null;
+    private final Thread thread;
+    private final Thread shutdownHook;
+
+    // PRIVATE METHODS
+    private void drain() {
+        long lastFlush = System.currentTimeMillis();
+        boolean pending = false;
+        try {
+            while (true) {
+                int slot = -1;
+                synchronized (this) {
+                    while (count == 0 && !closing) {
+                        if (!pending) {
+                            wait();
+                            continue;
+                        }
+                        final long timeout = lastFlush + flushMillis - System.currentTimeMillis();
+                        if (timeout <= 0) {
+                            break;
+                        }
+                        wait(timeout);
+                    }
+                    if (count > 0) {
+                        slot = head;
+                    } else if (closing) {
+                        break;
+                    }
+                }
+                // The slot stays taken while its text is written, so it can be read without the lock
+                if (slot != -1) {
+                    out.write(slots[slot], 0, lengths[slot]);
+                    pending = true;
+                    synchronized (this) {
+                        head = (head + 1) % slots.length;
+                        --count;
+                        notifyAll();
+                    }
+                }
+                final long now = System.currentTimeMillis();
+                if (pending && now - lastFlush >= flushMillis) {
+                    out.flush();
+                    pending = false;
+                    lastFlush = now;
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            error = e;
+        } catch (InterruptedException e) {
+            error = new IOException("writer thread interrupted", e);
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                }
+            }
+            synchronized (this) {
+                done = true;
+                notifyAll();
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            System.out.println("failed to flush " + e.getMessage());
+        }
+    }
+
+    // PUBLIC METHODS
+    /**
+     * Start a writer thread
+     * @param w writer to write to; closed along with this writer
+     * @param capacity amount of writes which may wait for the writer thread at once
+     * @param bufferSize amount of chars buffered before they are written out
+     * @param flushMillis longest time written text may stay buffered, in milliseconds
+     */
+    public AsyncTextWriter(Writer w, int capacity, int bufferSize, long flushMillis) {
+        out = new BufferedWriter(w, bufferSize);
+        this.flushMillis = flushMillis;
+        slots = new char[capacity][INITIAL_SLOT_LENGTH];
+        lengths = new int[capacity];
+        thread = new Thread(this::drain, "async-text-writer");
+        thread.setDaemon(true);
+        thread.start();
+        shutdownHook = new Thread(this::closeQuietly);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Queue text to be written, waiting if the ring is full. The text is copied, so the caller may reuse it
+     * @param s text
+     * @throws IOException if the writer was closed or the writer thread failed
+     */
+    public synchronized void write(CharSequence s) throws IOException {
+        while (count == slots.length && !done) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while waiting for the writer thread", e);
+            }
+        }
+        if (closing || done) {
+            throw new IOException("writer closed", error);
+        }
+        final int slot = (head + count) % slots.length;
+        final int n = s.length();
+        if (slots[slot].length < n) {
+            slots[slot] = new char[Math.max(n, 2 * slots[slot].length)];
+        }
+        if (s instanceof StringBuilder sb) {
+            sb.getChars(0, n, slots[slot], 0);
+        } else {
+            s.toString().getChars(0, n, slots[slot], 0);
+        }
+        lengths[slot] = n;
+        ++count;
+        notifyAll();
+    }
+
+    /**
+     * Write out everything queued, flush and close the underlying writer. Does nothing if already closed
+     * @throws IOException if the writer thread failed at any point
+     */
+    public void close() throws IOException {
+        synchronized (this) {
+            closing = true;
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for the writer thread", e);
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down, the hook will find the writer closed
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
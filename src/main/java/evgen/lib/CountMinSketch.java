@@ -0,0 +1,85 @@
+package evgen.lib;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Count-min sketch -- fixed-size table of counters estimating counts of arbitrarily many keys.
+ * Estimates never fall below the true count (as long as no key's count goes negative)
+ * and exceed it by at most about {@code e/width} of the total count, with probability {@code 1-e^-depth}.
+ * Keys are given by their 64-bit hashes, which should be well mixed.
+ */
+public class CountMinSketch {
+    private final int width;
+    private final int depth;
+    private final int[] counters;
+
+    // PRIVATE METHODS
+    private int column(long hash, int row) {
+        // Derive a hash per row from the two halves of the key's hash
+        final int h = (int)hash + row * ((int)(hash >>> 32) | 1);
+        return Math.floorMod(h, width);
+    }
+
+    // PUBLIC METHODS
+    /**
+     * Construct an empty sketch
+     * @param width amount of counters per row
+     * @param depth amount of rows
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("Sketch dimensions must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        counters = new int[width * depth];
+    }
+
+    /**
+     * Add delta to count of key
+     * @param hash hash of key
+     * @param delta value to add, may be negative
+     */
+    public void add(long hash, int delta) {
+        for (int row = 0; row < depth; ++row) {
+            counters[row * width + column(hash, row)] += delta;
+        }
+    }
+
+    /**
+     * Estimate count of key
+     * @param hash hash of key
+     * @return estimated count
+     */
+    public int estimate(long hash) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; ++row) {
+            min = Math.min(min, counters[row * width + column(hash, row)]);
+        }
+        return min;
+    }
+
+    /**
+     * Write all counters
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        for (final int c : counters) {
+            out.writeInt(c);
+        }
+    }
+
+    /**
+     * Replace all counters with ones written by {@link #writeTo(DataOutput)} of a sketch of the same dimensions
+     * @param in input to read from
+     * @throws IOException if reading fails
+     */
+    public void readFrom(DataInput in) throws IOException {
+        for (int i = 0; i < counters.length; ++i) {
+            counters[i] = in.readInt();
+        }
+    }
+}
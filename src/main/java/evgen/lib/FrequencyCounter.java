@@ -0,0 +1,198 @@
+package evgen.lib;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multiset which keeps its keys grouped by count, in a list of buckets sorted by count (as in an LFU cache).
+ * Incrementing or decrementing a key moves it to a neighbouring bucket, so the most frequent key
+ * is available in O(1) time and the K most frequent ones in O(K) time.
+ * Within a bucket, keys are ordered by the time they reached its count.
+ * Keys must be hashable.
+ */
+public class FrequencyCounter<K> {
+    private static class Bucket<K> {
+        final int count;
+        final LinkedHashSet<K> keys = new LinkedHashSet<>();
+        Bucket<K> prev = null;
+        Bucket<K> next = null;
+
+        Bucket(int c) {
+            count = c;
+        }
+    }
+
+    // PRIVATE ATTRIBUTES
+    private final Map<K, Bucket<K>> bucketOf = new HashMap<>();
+    // Buckets in ascending order of count, never empty
+    private Bucket<K> lowest = null;
+    private Bucket<K> highest = null;
+
+    // PRIVATE METHODS
+    private Bucket<K> insertAfter(Bucket<K> b, int count) {
+        Bucket<K> n = new Bucket<>(count);
+        n.prev = b;
+        n.next = (b == null) ? lowest : b.next;
+        if (n.prev == null) {
+            lowest = n;
+        } else {
+            n.prev.next = n;
+        }
+        if (n.next == null) {
+            highest = n;
+        } else {
+            n.next.prev = n;
+        }
+        return n;
+    }
+
+    private void unlinkIfEmpty(Bucket<K> b) {
+        if (!b.keys.isEmpty()) {
+            return;
+        }
+        if (b.prev == null) {
+            lowest = b.next;
+        } else {
+            b.prev.next = b.next;
+        }
+        if (b.next == null) {
+            highest = b.prev;
+        } else {
+            b.next.prev = b.prev;
+        }
+    }
+
+    // PUBLIC METHODS
+    /**
+     * Construct an empty FrequencyCounter
+     */
+    public FrequencyCounter() {}
+
+    /**
+     * Increase count of key by one
+     * @param key
+     * @return new count of key
+     */
+    public int increment(K key) {
+        final Bucket<K> b = bucketOf.get(key);
+        final int count = (b == null) ? 1 : b.count + 1;
+        final Bucket<K> candidate = (b == null) ? lowest : b.next;
+        final Bucket<K> target = (candidate != null && candidate.count == count) ? candidate : insertAfter(b, count);
+        target.keys.add(key);
+        bucketOf.put(key, target);
+        if (b != null) {
+            b.keys.remove(key);
+            unlinkIfEmpty(b);
+        }
+        return count;
+    }
+
+    /**
+     * Decrease count of key by one, removing it once it reaches zero
+     * @param key
+     * @return new count of key, -1 if key was not present
+     */
+    public int decrement(K key) {
+        final Bucket<K> b = bucketOf.get(key);
+        if (b == null) {
+            return -1;
+        }
+        final int count = b.count - 1;
+        if (count == 0) {
+            bucketOf.remove(key);
+        } else {
+            final Bucket<K> target = (b.prev != null && b.prev.count == count) ? b.prev : insertAfter(b.prev, count);
+            target.keys.add(key);
+            bucketOf.put(key, target);
+        }
+        b.keys.remove(key);
+        unlinkIfEmpty(b);
+        return count;
+    }
+
+    /**
+     * Add a key which is not present with a given count, after all keys having that count already.
+     * Adding keys in the order returned by {@link #getTop(int)} of another counter makes this one equal to it
+     * @param key
+     * @param count count of key, positive
+     */
+    public void put(K key, int count) {
+        assert count > 0 && !bucketOf.containsKey(key);
+        Bucket<K> prev = null;
+        Bucket<K> b = lowest;
+        while (b != null && b.count < count) {
+            prev = b;
+            b = b.next;
+        }
+        final Bucket<K> target = (b != null && b.count == count) ? b : insertAfter(prev, count);
+        target.keys.add(key);
+        bucketOf.put(key, target);
+    }
+
+    /**
+     * Remove all keys
+     */
+    public void clear() {
+        bucketOf.clear();
+        lowest = null;
+        highest = null;
+    }
+
+    /**
+     * Get count of key
+     * @param key
+     * @return count of key, 0 if not present
+     */
+    public int count(K key) {
+        final Bucket<K> b = bucketOf.get(key);
+        return (b == null) ? 0 : b.count;
+    }
+
+    /**
+     * Get the key with the highest count. Of keys with equal counts, the one which reached it first is returned.
+     * @return most frequent key, null if empty
+     */
+    public K getMostFrequent() {
+        return (highest == null) ? null : highest.keys.iterator().next();
+    }
+
+    /**
+     * Get the highest count
+     * @return count of the most frequent key, 0 if empty
+     */
+    public int getHighestCount() {
+        return (highest == null) ? 0 : highest.count;
+    }
+
+    /**
+     * Get up to k keys with the highest counts, in descending order of count
+     * @param k amount of keys to get
+     * @return list of keys
+     */
+    public List<K> getTop(int k) {
+        List<K> l = new ArrayList<>(Math.max(0, Math.min(k, bucketOf.size())));
+        for (Bucket<K> b = highest; b != null && l.size() < k; b = b.prev) {
+            Iterator<K> it = b.keys.iterator();
+            while (it.hasNext() && l.size() < k) {
+                l.add(it.next());
+            }
+        }
+        return l;
+    }
+
+    /**
+     * Get amount of distinct keys
+     * @return amount of keys with non-zero count
+     */
+    public int size() {
+        return bucketOf.size();
+    }
+
+    public boolean isEmpty() {
+        return bucketOf.isEmpty();
+    }
+}
@@ -0,0 +1,60 @@
+package evgen.lib;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws random subsets of indices without repetition, by a partial Fisher-Yates shuffle
+ * over a per-thread scratch permutation. The permutation is restored to identity after every call,
+ * so results depend only on the RNG passed in. Lock-free, and allocation-free once a thread's
+ * scratch arrays have grown to the largest size requested.
+ */
+public final class IndexSampler {
+    private static class Scratch {
+        int[] perm = new int[0];
+        int[] out = new int[0];
+    }
+
+    private static final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private IndexSampler() {}
+
+    /**
+     * Draw k distinct indices out of 0..n-1, in order of drawing.
+     * The returned array belongs to the calling thread and is overwritten by its next call.
+     * @param r RNG to use
+     * @param n amount of indices to draw from
+     * @param k amount of indices to draw, at most n
+     * @return array with the drawn indices in its first k elements
+     */
+    public static int[] sample(RandomGenerator r, int n, int k) {
+        if (k < 0 || k > n) {
+            throw new IllegalArgumentException(String.format("cannot draw %d out of %d indices", k, n));
+        }
+        final Scratch s = scratch.get();
+        if (s.perm.length < n) {
+            s.perm = new int[n];
+            for (int i = 0; i < n; ++i) {
+                s.perm[i] = i;
+            }
+        }
+        if (s.out.length < k) {
+            s.out = new int[k];
+        }
+        final int[] perm = s.perm;
+        final int[] out = s.out;
+        // Take a random index from the undrawn prefix and swap the prefix's last one into its place
+        for (int i = 0; i < k; ++i) {
+            final int last = n - 1 - i;
+            final int j = r.nextInt(last + 1);
+            out[i] = perm[j];
+            perm[j] = perm[last];
+            perm[last] = out[i];
+        }
+        // Only the drawn positions and the tail were touched; set them back to identity
+        for (int i = 0; i < k; ++i) {
+            perm[out[i]] = out[i];
+            perm[n - 1 - i] = n - 1 - i;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,252 @@
+package evgen.lib;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Bucket queue of ints from a fixed range 0..capacity-1 (e.g. map cell indices), each with a small non-negative key.
+ * Meant for keys which mostly grow one at a time, like counters: moving a value to the next key,
+ * adding, removing, and polling a random value with the lowest key are all O(1) (amortised).
+ * Within a bucket, values are kept in a dense array, as in {@link IntRandomSet}.
+ * A sparse queue keeps the key and position of each value in hash maps instead of per-value arrays.
+ */
+public class IntBucketQueue {
+    private static final int NONE = -1;
+
+    // Key and position within its bucket of each value, NONE if absent; null for a sparse queue
+    private final int[] keyOf;
+    private final int[] slotOf;
+    // Key and position within its bucket of each value; null for a dense queue
+    private final IntIntHashMap sparseKeyOf;
+    private final IntIntHashMap sparseSlotOf;
+    private int[][] buckets = new int[0][];
+    private int[] bucketSizes = new int[0];
+    private int size = 0;
+    // No bucket below this key is non-empty
+    private int minKey = Integer.MAX_VALUE;
+
+    // PRIVATE METHODS
+    private int getKey(int value) {
+        return (keyOf != null) ? keyOf[value] : sparseKeyOf.get(value, NONE);
+    }
+
+    private void setSlot(int value, int key, int slot) {
+        if (keyOf != null) {
+            keyOf[value] = key;
+            slotOf[value] = slot;
+        } else if (key == NONE) {
+            sparseKeyOf.remove(value);
+            sparseSlotOf.remove(value);
+        } else {
+            sparseKeyOf.put(value, key);
+            sparseSlotOf.put(value, slot);
+        }
+    }
+
+    private void append(int value, int key) {
+        if (key >= buckets.length) {
+            final int n = Math.max(key + 1, 2 * buckets.length);
+            buckets = Arrays.copyOf(buckets, n);
+            bucketSizes = Arrays.copyOf(bucketSizes, n);
+        }
+        int[] b = buckets[key];
+        if (b == null) {
+            b = new int[4];
+            buckets[key] = b;
+        } else if (bucketSizes[key] == b.length) {
+            b = Arrays.copyOf(b, 2 * b.length);
+            buckets[key] = b;
+        }
+        setSlot(value, key, bucketSizes[key]);
+        b[bucketSizes[key]++] = value;
+        minKey = Math.min(minKey, key);
+    }
+
+    private void detach(int value) {
+        final int key = getKey(value);
+        final int slot = (slotOf != null) ? slotOf[value] : sparseSlotOf.get(value, NONE);
+        final int[] b = buckets[key];
+        // Last value of the bucket fills the hole
+        final int last = b[--bucketSizes[key]];
+        b[slot] = last;
+        if (last != value) {
+            setSlot(last, key, slot);
+        }
+        setSlot(value, NONE, NONE);
+    }
+
+    private void updateMinKey() {
+        if (size == 0) {
+            minKey = Integer.MAX_VALUE;
+            return;
+        }
+        while (bucketSizes[minKey] == 0) {
+            ++minKey;
+        }
+    }
+
+    // PUBLIC METHODS
+    /**
+     * Construct an empty IntBucketQueue
+     * @param capacity amount of possible values; values must be between 0 and capacity-1
+     */
+    public IntBucketQueue(int capacity) {
+        keyOf = new int[capacity];
+        slotOf = new int[capacity];
+        Arrays.fill(keyOf, NONE);
+        Arrays.fill(slotOf, NONE);
+        sparseKeyOf = null;
+        sparseSlotOf = null;
+    }
+
+    /**
+     * Construct an empty sparse IntBucketQueue, taking memory proportional to the amount of values held
+     * rather than to their range; values may be any non-negative ints
+     */
+    public IntBucketQueue() {
+        keyOf = null;
+        slotOf = null;
+        sparseKeyOf = new IntIntHashMap();
+        sparseSlotOf = new IntIntHashMap();
+    }
+
+    /**
+     * Add value with given key
+     * @param value
+     * @param key non-negative key
+     * @return false if value was already present (its key is left unchanged), true otherwise
+     */
+    public boolean add(int value, int key) {
+        if (getKey(value) != NONE) {
+            return false;
+        }
+        append(value, key);
+        ++size;
+        return true;
+    }
+
+    /**
+     * Remove value
+     * @param value
+     * @return true if value was present, false otherwise
+     */
+    public boolean remove(int value) {
+        if (getKey(value) == NONE) {
+            return false;
+        }
+        detach(value);
+        --size;
+        updateMinKey();
+        return true;
+    }
+
+    /**
+     * Move value to a new key
+     * @param value value, must be present
+     * @param key new non-negative key
+     */
+    public void setKey(int value, int key) {
+        assert getKey(value) != NONE : "Value not present";
+        detach(value);
+        append(value, key);
+        updateMinKey();
+    }
+
+    /**
+     * Move value to the next key
+     * @param value value, must be present
+     */
+    public void increment(int value) {
+        setKey(value, getKey(value) + 1);
+    }
+
+    public boolean contains(int value) {
+        return getKey(value) != NONE;
+    }
+
+    /**
+     * Get key of value
+     * @param value
+     * @return key, -1 if value is not present
+     */
+    public int keyOf(int value) {
+        return getKey(value);
+    }
+
+    /**
+     * Get the lowest key of any value
+     * @return lowest key, -1 if empty
+     */
+    public int minKey() {
+        return (size == 0) ? NONE : minKey;
+    }
+
+    /**
+     * Remove and return a random value out of those with the lowest key
+     * @param rnd RNG to use
+     * @return random value with the lowest key, -1 if empty
+     */
+    public int pollRandomMin(RandomGenerator rnd) {
+        if (size == 0) {
+            return NONE;
+        }
+        final int value = buckets[minKey][rnd.nextInt(bucketSizes[minKey])];
+        remove(value);
+        return value;
+    }
+
+    /**
+     * Remove all values
+     */
+    public void clear() {
+        for (int key = 0; key < buckets.length; ++key) {
+            for (int i = 0; i < bucketSizes[key]; ++i) {
+                setSlot(buckets[key][i], NONE, NONE);
+            }
+            bucketSizes[key] = 0;
+        }
+        size = 0;
+        minKey = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Write all values with their keys, in order of keys and of positions within buckets
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int key = 0; key < buckets.length; ++key) {
+            for (int i = 0; i < bucketSizes[key]; ++i) {
+                out.writeInt(buckets[key][i]);
+                out.writeInt(key);
+            }
+        }
+    }
+
+    /**
+     * Replace contents with values written by {@link #writeTo(DataOutput)}, in the same order,
+     * so that random polls give the same results as they would have on the written queue
+     * @param in input to read from
+     * @throws IOException if reading fails
+     */
+    public void readFrom(DataInput in) throws IOException {
+        clear();
+        final int n = in.readInt();
+        for (int i = 0; i < n; ++i) {
+            final int value = in.readInt();
+            add(value, in.readInt());
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,167 @@
+package evgen.lib;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Map from non-negative ints to ints, using open addressing with linear probing.
+ * Memory is proportional to the amount of entries rather than to the range of keys,
+ * which makes it the sparse counterpart of a plain per-cell int array.
+ */
+public class IntIntHashMap {
+    private static final int FREE = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size = 0;
+
+    // PRIVATE METHODS
+    private static int hash(int key) {
+        final int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int slotOf(int key) {
+        int i = hash(key) & mask;
+        while (keys[i] != FREE && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+
+    private void grow() {
+        final int[] oldKeys = keys;
+        final int[] oldValues = values;
+        allocate(2 * oldKeys.length);
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] != FREE) {
+                final int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // PUBLIC METHODS
+    public IntIntHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Get value mapped to key
+     * @param key non-negative key
+     * @param defaultValue value to return if key is absent
+     * @return mapped value, defaultValue if absent
+     */
+    public int get(int key, int defaultValue) {
+        final int slot = slotOf(key);
+        return (keys[slot] == FREE) ? defaultValue : values[slot];
+    }
+
+    public boolean containsKey(int key) {
+        return keys[slotOf(key)] != FREE;
+    }
+
+    /**
+     * Map key to value, replacing the previous value if present
+     * @param key non-negative key
+     * @param value
+     */
+    public void put(int key, int value) {
+        final int slot = slotOf(key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            if (2 * ++size > keys.length) {
+                values[slot] = value;
+                grow();
+                return;
+            }
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Remove key from map
+     * @param key
+     * @return true if key was present, false otherwise
+     */
+    public boolean remove(int key) {
+        int i = slotOf(key);
+        if (keys[i] == FREE) {
+            return false;
+        }
+        --size;
+        // Shift following entries of the probe chain back, so that no lookup stops at the hole
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == FREE) {
+                break;
+            }
+            final int home = hash(keys[j]) & mask;
+            if ((j > i) ? (home <= i || home > j) : (home <= i && home > j)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = FREE;
+        return true;
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Write all entries, as key-value pairs
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < keys.length; ++i) {
+            if (keys[i] != FREE) {
+                out.writeInt(keys[i]);
+                out.writeInt(values[i]);
+            }
+        }
+    }
+
+    /**
+     * Replace contents with entries written by {@link #writeTo(DataOutput)}
+     * @param in input to read from
+     * @throws IOException if reading fails
+     */
+    public void readFrom(DataInput in) throws IOException {
+        clear();
+        final int n = in.readInt();
+        for (int i = 0; i < n; ++i) {
+            final int key = in.readInt();
+            put(key, in.readInt());
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,72 @@
+package evgen.lib;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints. Avoids boxing of {@code List<Integer>}
+ * and keeps its storage between {@link #clear()} calls, so it can be reused.
+ */
+public class IntList {
+    private int[] dta;
+    private int size = 0;
+
+    /**
+     * Construct an empty IntList
+     */
+    public IntList() {
+        this(16);
+    }
+
+    /**
+     * Construct an empty IntList with given initial capacity
+     * @param capacity
+     */
+    public IntList(int capacity) {
+        dta = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Append value to the end of the list
+     * @param value
+     */
+    public void add(int value) {
+        if (size == dta.length) {
+            dta = Arrays.copyOf(dta, 2 * size);
+        }
+        dta[size++] = value;
+    }
+
+    /**
+     * Get value at index i
+     * @param i
+     * @return value at index i
+     */
+    public int get(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return dta[i];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Sort values in ascending order
+     */
+    public void sort() {
+        Arrays.sort(dta, 0, size);
+    }
+
+    /**
+     * Remove all values, keeping the allocated storage
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,170 @@
+package evgen.lib;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Set of ints from a fixed range 0..capacity-1 (e.g. map cell indices), allowing polling random elements in O(1) time.
+ * Primitive counterpart of {@link RandomSet}: elements are kept in a dense array along with
+ * an array holding each value's position in it, so no operation boxes, hashes or allocates.
+ */
+public class IntRandomSet {
+    private final int[] dta;
+    // Position of each value in dta, -1 if absent
+    private final int[] idx;
+    private int size = 0;
+
+    /**
+     * Construct an empty IntRandomSet
+     * @param capacity amount of possible values; values must be between 0 and capacity-1
+     */
+    public IntRandomSet(int capacity) {
+        dta = new int[capacity];
+        idx = new int[capacity];
+        Arrays.fill(idx, -1);
+    }
+
+    /**
+     * Add value to set
+     * @param value
+     * @return false if value was already in the set, true otherwise
+     */
+    public boolean add(int value) {
+        if (idx[value] != -1) {
+            return false;
+        }
+        idx[value] = size;
+        dta[size++] = value;
+        return true;
+    }
+
+    /**
+     * Override element at position <code>id</code> with last element.
+     * @param id
+     * @return element which was overriden, -1 if id is out of range
+     */
+    public int removeAt(int id) {
+        if (id >= size) {
+            return -1;
+        }
+        final int res = dta[id];
+        final int last = dta[--size];
+        dta[id] = last;
+        idx[last] = id;
+        idx[res] = -1;
+        return res;
+    }
+
+    /**
+     * Remove value from set
+     * @param value
+     * @return true if value was present, false otherwise
+     */
+    public boolean remove(int value) {
+        final int id = idx[value];
+        if (id == -1) {
+            return false;
+        }
+        removeAt(id);
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return idx[value] != -1;
+    }
+
+    /**
+     * Get value at index i
+     * @param i
+     * @return element at index i
+     */
+    public int get(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return dta[i];
+    }
+
+    /**
+     * Remove and return a random value from the set
+     * @param rnd RNG to use
+     * @return random set element, -1 if the set is empty
+     */
+    public int pollRandom(RandomGenerator rnd) {
+        if (size == 0) {
+            return -1;
+        }
+        return removeAt(rnd.nextInt(size));
+    }
+
+    /**
+     * Remove several random values from the set at once, writing them to a buffer
+     * @param rnd RNG to use
+     * @param amount amount of values to remove
+     * @param out buffer to write the values to
+     * @param offset position in out to write the first value at
+     * @return amount of values removed, less than amount if the set ran out
+     */
+    public int pollRandom(RandomGenerator rnd, int amount, int[] out, int offset) {
+        final int n = Math.min(amount, size);
+        for (int i = 0; i < n; ++i) {
+            out[offset + i] = removeAt(rnd.nextInt(size));
+        }
+        return n;
+    }
+
+    /**
+     * Remove all values
+     */
+    public void clear() {
+        for (int i = 0; i < size; ++i) {
+            idx[dta[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Write all values, in their order within the set
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; ++i) {
+            out.writeInt(dta[i]);
+        }
+    }
+
+    /**
+     * Replace contents with values written by {@link #writeTo(DataOutput)}, in the same order,
+     * so that random polls give the same results as they would have on the written set
+     * @param in input to read from
+     * @throws IOException if reading fails
+     */
+    public void readFrom(DataInput in) throws IOException {
+        clear();
+        final int n = in.readInt();
+        for (int i = 0; i < n; ++i) {
+            add(in.readInt());
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get amount of possible values
+     * @return capacity given on construction
+     */
+    public int capacity() {
+        return dta.length;
+    }
+}
@@ -7,7 +7,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Set-like, indexed utility container which allows polling random elements in O(1) time.
@@ -128,7 +128,7 @@ public class RandomSet<E> extends AbstractSet<E> {
      * @param rnd RNG to use
      * @return random set element
      */
-    public E pollRandom(Random rnd) {
+    public E pollRandom(RandomGenerator rnd) {
         if (dta.isEmpty()) {
             return null;
         }
@@ -0,0 +1,139 @@
+package evgen.lib;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Set of non-negative ints allowing polling random elements in O(1) time.
+ * Same as {@link IntRandomSet}, but the position of each value is kept in an {@link IntIntHashMap},
+ * so memory is proportional to the amount of elements rather than to the range of values.
+ */
+public class SparseIntRandomSet {
+    private int[] dta = new int[16];
+    // Position of each value in dta
+    private final IntIntHashMap idx = new IntIntHashMap();
+    private int size = 0;
+
+    /**
+     * Add value to set
+     * @param value non-negative value
+     * @return false if value was already in the set, true otherwise
+     */
+    public boolean add(int value) {
+        if (idx.containsKey(value)) {
+            return false;
+        }
+        if (size == dta.length) {
+            dta = Arrays.copyOf(dta, 2 * size);
+        }
+        idx.put(value, size);
+        dta[size++] = value;
+        return true;
+    }
+
+    /**
+     * Override element at position <code>id</code> with last element.
+     * @param id
+     * @return element which was overriden, -1 if id is out of range
+     */
+    public int removeAt(int id) {
+        if (id >= size) {
+            return -1;
+        }
+        final int res = dta[id];
+        final int last = dta[--size];
+        dta[id] = last;
+        if (last != res) {
+            idx.put(last, id);
+        }
+        idx.remove(res);
+        return res;
+    }
+
+    /**
+     * Remove value from set
+     * @param value
+     * @return true if value was present, false otherwise
+     */
+    public boolean remove(int value) {
+        final int id = idx.get(value, -1);
+        if (id == -1) {
+            return false;
+        }
+        removeAt(id);
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return idx.containsKey(value);
+    }
+
+    /**
+     * Get value at index i
+     * @param i
+     * @return element at index i
+     */
+    public int get(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return dta[i];
+    }
+
+    /**
+     * Remove and return a random value from the set
+     * @param rnd RNG to use
+     * @return random set element, -1 if the set is empty
+     */
+    public int pollRandom(RandomGenerator rnd) {
+        if (size == 0) {
+            return -1;
+        }
+        return removeAt(rnd.nextInt(size));
+    }
+
+    /**
+     * Remove all values
+     */
+    public void clear() {
+        idx.clear();
+        size = 0;
+    }
+
+    /**
+     * Write all values, in their order within the set
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; ++i) {
+            out.writeInt(dta[i]);
+        }
+    }
+
+    /**
+     * Replace contents with values written by {@link #writeTo(DataOutput)}, in the same order,
+     * so that random polls give the same results as they would have on the written set
+     * @param in input to read from
+     * @throws IOException if reading fails
+     */
+    public void readFrom(DataInput in) throws IOException {
+        clear();
+        final int n = in.readInt();
+        for (int i = 0; i < n; ++i) {
+            add(in.readInt());
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
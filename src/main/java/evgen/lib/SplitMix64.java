@@ -0,0 +1,82 @@
+package evgen.lib;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Small, seedable SplitMix64 pseudo-random generator.
+ * Unlike {@link java.util.Random} it is not synchronized, and its whole state is a single long,
+ * so independent streams can be split off cheaply and handed out to separate consumers.
+ * Instances are not thread-safe; give every thread (or every animal) its own stream.
+ */
+public class SplitMix64 implements RandomGenerator {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    /**
+     * Finalise a 64-bit value (Stafford's variant 13 mixer)
+     * @param z
+     * @return mixed value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Split a new stream off the given generator, if it supports splitting.
+     * Other generators (e.g. a shared {@link java.util.Random}) are returned as is.
+     * @param r generator to split
+     * @return new independent stream, or r itself
+     */
+    public static RandomGenerator split(RandomGenerator r) {
+        return (r instanceof SplitMix64) ? ((SplitMix64) r).split() : r;
+    }
+
+    /**
+     * Construct a generator with a seed derived from the current time
+     */
+    public SplitMix64() {
+        this(mix(System.nanoTime()) ^ mix(System.currentTimeMillis()));
+    }
+
+    /**
+     * Construct a generator from a seed; equal seeds yield equal sequences
+     * @param seed
+     */
+    public SplitMix64(long seed) {
+        state = seed;
+    }
+
+    /**
+     * Create a new generator, statistically independent of this one.
+     * Advances this generator by one step.
+     * @return new generator
+     */
+    public SplitMix64 split() {
+        return new SplitMix64(nextLong());
+    }
+
+    /**
+     * Get the generator's whole state, e.g. to checkpoint it
+     * @return state
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Restore a state returned by {@link #getState()}; the generator then continues the sequence from there
+     * @param state
+     */
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+}
@@ -2,17 +2,29 @@ package evgen;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import evgen.lib.SplitMix64;
 
 public class AbstractWorldMapTest {
     private static final long rngSeed = 20010911l;
@@ -35,7 +47,7 @@ public class AbstractWorldMapTest {
 
     @Test
     void testAbstractWorldMapCanPlaceAt() {
-        AbstractWorldMap m = new GlobeMap(rng, s, f);
+        AbstractWorldMap m = new GlobeMap(rng, s, new StatTracker(), f);
         assertTrue(m.canPlaceAt(new Vector2d(0, 0)));
         assertTrue(m.canPlaceAt(new Vector2d(0, 4)));
         assertTrue(m.canPlaceAt(new Vector2d(2, 0)));
@@ -51,52 +63,62 @@ public class AbstractWorldMapTest {
 
     @Test
     void testAbstractWorldMapPlace() {
-        AbstractWorldMap m = new GlobeMap(rng, s, f);
+        AbstractWorldMap m = new GlobeMap(rng, s, new StatTracker(), f);
         Animal a = mock(Animal.class);
         when(a.getPosition()).thenReturn(new Vector2d(3, 3));
         when(a.getID()).thenReturn(1337);
 
         assertTrue(m.place(a));
         assertTrue(m.animalsByID.containsKey(1337));
-        assertTrue(m.animals.containsKey(a.getPosition()));
-        assertTrue(m.animals.get(a.getPosition()).contains(a));
+        assertTrue(m.grid.containsAnimal(m.grid.toIndex(a.getPosition()), a));
 
         Animal b = mock(Animal.class);
         when(b.getPosition()).thenReturn(new Vector2d(-1, 0));
         when(b.getID()).thenReturn(1338);
         assertFalse(m.place(b));
         assertFalse(m.animalsByID.containsKey(1338));
-        assertFalse(m.animals.containsKey(b.getPosition()) && m.animals.get(b.getPosition()).contains(b));
+        assertFalse(m.canPlaceAt(b.getPosition()) && m.grid.containsAnimal(m.grid.toIndex(b.getPosition()), b));
 
         when(b.getPosition()).thenReturn(new Vector2d(3, 3));
         assertTrue(m.place(b));
         assertTrue(m.animalsByID.containsKey(1338));
-        assertTrue(m.animals.containsKey(b.getPosition()));
-        assertTrue(m.animals.get(b.getPosition()).contains(b));
+        assertTrue(m.grid.containsAnimal(m.grid.toIndex(b.getPosition()), b));
+        assertEquals(2, m.grid.animalsAt(m.grid.toIndex(new Vector2d(3, 3))).size());
     }
 
     @Test
     void testAbstractWorldMapGrowFoliage() {
-        AbstractWorldMap m = new GlobeMap(rng, s, f);
-        when(f.getPlantSpot()).thenReturn(new Vector2d(3, 3), new Vector2d(2, 2), new Vector2d(1, 1), null);
+        AbstractWorldMap m = new GlobeMap(rng, s, new StatTracker(), f);
+        final int[] spots = {m.grid.toIndex(3, 3), m.grid.toIndex(2, 2), m.grid.toIndex(1, 1)};
+        final int[] next = {0};
+        when(f.getPlantCells(anyInt(), any())).thenAnswer(inv -> {
+            final int amount = inv.getArgument(0);
+            final int[] out = inv.getArgument(1);
+            int n = 0;
+            while (n < amount && next[0] < spots.length) {
+                out[n++] = spots[next[0]++];
+            }
+            return n;
+        });
 
         m.growFoliage(1);
-        verify(f).getPlantSpot();
-        assertTrue(m.foliage.containsKey(new Vector2d(3, 3)));
+        verify(f).getPlantCells(eq(1), any());
+        assertTrue(m.grid.hasPlant(m.grid.toIndex(3, 3)));
+        assertEquals(1, m.grid.getPlantCount());
 
         m.growFoliage(5);
-        verify(f, times(4)).getPlantSpot();
-        assertTrue(m.foliage.containsKey(new Vector2d(3, 3)));
-        assertTrue(m.foliage.containsKey(new Vector2d(2, 2)));
-        assertTrue(m.foliage.containsKey(new Vector2d(1, 1)));
+        verify(f).getPlantCells(eq(5), any());
+        assertTrue(m.grid.hasPlant(m.grid.toIndex(3, 3)));
+        assertTrue(m.grid.hasPlant(m.grid.toIndex(2, 2)));
+        assertTrue(m.grid.hasPlant(m.grid.toIndex(1, 1)));
     }
 
     // @Test
     // void testAbstractWorldMapFeedAnimals() {
     //     when(s.getStartingFoliage()).thenReturn(1);
     //     when(f.getPlantSpot()).thenReturn(new Vector2d(2, 2));
-    //     AbstractWorldMap m = new GlobeMap(rng, s, f);
-    //     assertTrue(m.foliage.containsKey(new Vector2d(2, 2)));
+    //     AbstractWorldMap m = new GlobeMap(rng, s, new StatTracker(), f);
+    //     assertTrue(m.grid.hasPlant(m.grid.toIndex(2, 2)));
 
     //     m.feedAnimals();
 
@@ -111,14 +133,17 @@ public class AbstractWorldMapTest {
     //     m.positionChanged(1337, new Vector2d(3, 3), new Vector2d(2, 2));
     //     m.feedAnimals();
     //     verify(a, times(1)).eat();
-    //     assertFalse(m.foliage.containsKey(new Vector2d(2, 2)));
+    //     assertFalse(m.grid.hasPlant(m.grid.toIndex(2, 2)));
     //     verify(f).plantEaten(new Vector2d(2, 2));
     // }
 
     @Test
     void testAbstractWorldMapObjectAt() {
-        AbstractWorldMap m = new GlobeMap(rng, s, f);
-        when(f.getPlantSpot()).thenReturn(new Vector2d(3, 3));
+        AbstractWorldMap m = new GlobeMap(rng, s, new StatTracker(), f);
+        when(f.getPlantCells(eq(1), any())).thenAnswer(inv -> {
+            ((int[]) inv.getArgument(1))[0] = m.grid.toIndex(3, 3);
+            return 1;
+        });
         m.growFoliage(1);
         assertEquals(Plant.class, m.objectAt(new Vector2d(3, 3)).getClass());
 
@@ -128,9 +153,156 @@ public class AbstractWorldMapTest {
         assertEquals(a, m.objectAt(new Vector2d(3, 3)));
     }
 
+    @Test
+    void testAbstractWorldMapParallelEpochKeepsGridInSync() {
+        Settings realSettings = new Settings();
+        StatTracker st = new StatTracker();
+        AbstractWorldMap m = new GlobeMap(rng, realSettings, st);
+        for (int i = 0; i < realSettings.getStartingAnimals(); ++i) {
+            assertTrue(m.place(new Animal(rng, realSettings, m, st)));
+        }
+        m.setParallelism(4);
+
+        for (int epoch = 0; epoch < 50; ++epoch) {
+            m.nextEpoch();
+            Set<Integer> cells = new HashSet<>();
+            for (Animal a : m.animalsByID.values()) {
+                final int cell = m.grid.toIndex(a.getPosition());
+                assertTrue(m.grid.containsAnimal(cell, a));
+                cells.add(cell);
+            }
+            assertEquals(cells.size(), m.grid.getOccupiedCount());
+        }
+        m.setParallelism(1);
+    }
+
+    private static String runSeeded(Settings realSettings, long seed, int threads) {
+        SplitMix64 master = new SplitMix64(seed);
+        StatTracker st = new StatTracker();
+        AbstractWorldMap m = new PortalMap(master, realSettings, st);
+        for (int i = 0; i < realSettings.getStartingAnimals(); ++i) {
+            m.place(new Animal(master.split(), realSettings, m, st));
+        }
+        m.setParallelism(threads);
+        StringBuilder trace = new StringBuilder();
+        for (int epoch = 0; epoch < 100; ++epoch) {
+            m.nextEpoch();
+            trace.append(new TreeMap<>(m.animalsByID).values()).append(st.getTopGenomes())
+                 .append(st.getMostPopularGenome()).append(';');
+        }
+        m.setParallelism(1);
+        return trace.toString();
+    }
+
+    @Test
+    void testAbstractWorldMapSeededRunIndependentOfThreadCount() {
+        final Settings realSettings = new Settings();
+        final String sequential = runSeeded(realSettings, rngSeed, 1);
+        assertEquals(sequential, runSeeded(realSettings, rngSeed, 2));
+        assertEquals(sequential, runSeeded(realSettings, rngSeed, 5));
+    }
+
+    @Test
+    void testAbstractWorldMapPortalDeathsIndependentOfThreadCount(@TempDir Path dir) throws IOException {
+        // Small crowded map, where many animals die in portals during the parallel move
+        final Path config = dir.resolve("portal.yaml");
+        Files.writeString(config, String.join("\n", "map_width: 6", "map_height: 6", "genome_length: 2", "max_mutations: 0"));
+        Settings realSettings = new Settings();
+        assertTrue(realSettings.loadConfig(config.toString()));
+        for (final long seed : new long[] {4, 8, 17}) {
+            final String sequential = runSeeded(realSettings, seed, 1);
+            assertEquals(sequential, runSeeded(realSettings, seed, 3));
+            assertEquals(sequential, runSeeded(realSettings, seed, 6));
+        }
+    }
+
+    private static String trace(Simulation simulation, StatTracker st, int epochs) {
+        AbstractWorldMap m = (AbstractWorldMap) simulation.map;
+        StringBuilder trace = new StringBuilder();
+        for (int epoch = 0; epoch < epochs; ++epoch) {
+            m.nextEpoch();
+            trace.append(new TreeMap<>(m.animalsByID).values()).append(st.getAvgEnergy()).append(st.getAvgLifeLength())
+                 .append(st.getFoliageCount()).append(st.getFreeFieldsCount()).append(st.getTopGenomes()).append(';');
+        }
+        return trace.toString();
+    }
+
+    private static void assertCheckpointRestoresState(Settings realSettings, Path dir) throws IOException {
+        final Path checkpoint = dir.resolve("checkpoint.bin");
+        StatTracker st = new StatTracker();
+        Simulation simulation = new Simulation(new SplitMix64(rngSeed), realSettings, st, 0);
+        trace(simulation, st, 30);
+        simulation.save(checkpoint);
+        final String uninterrupted = trace(simulation, st, 50);
+        assertTrue(st.getAnimalCount() > 0);
+
+        StatTracker restoredSt = new StatTracker();
+        Simulation restored = Simulation.load(checkpoint, realSettings, restoredSt, 0);
+        assertEquals(30, restored.map.getCurrentEpoch());
+        assertEquals(30, restoredSt.getEpoch());
+        restored.map.setParallelism(3);
+        assertEquals(uninterrupted, trace(restored, restoredSt, 50));
+        restored.map.setParallelism(1);
+
+        // Only into a new map
+        assertThrows(IllegalStateException.class, () -> restored.map.load(checkpoint));
+    }
+
+    @Test
+    void testAbstractWorldMapCheckpointRestoresState(@TempDir Path dir) throws IOException {
+        assertCheckpointRestoresState(new Settings(), dir);
+    }
+
+    @Test
+    void testAbstractWorldMapCheckpointRestoresLargeWorld(@TempDir Path dir) throws IOException {
+        // Sparse growers and chunked grid, with partial edge chunks
+        for (final String foliage : new String[] {"equator", "toxic"}) {
+            final Path config = dir.resolve(foliage + ".yaml");
+            Files.writeString(config, String.join("\n",
+                "world_size_variant: large", "foliage_variant: " + foliage, "map_width: 150", "map_height: 130",
+                "starting_animals: 300", "starting_foliage: 2000", "daily_foliage_growth: 200"));
+            Settings realSettings = new Settings();
+            assertTrue(realSettings.loadConfig(config.toString()));
+            assertCheckpointRestoresState(realSettings, dir);
+        }
+    }
+
+    @Test
+    void testAbstractWorldMapCheckpointRejectsOtherSettings(@TempDir Path dir) throws IOException {
+        final Path checkpoint = dir.resolve("checkpoint.bin");
+        Settings realSettings = new Settings();
+        new Simulation(new SplitMix64(rngSeed), realSettings, new StatTracker(), 0).save(checkpoint);
+
+        assertThrows(IOException.class, () -> Simulation.load(dir.resolve("missing.bin"), realSettings, new StatTracker(), 0));
+
+        // The world and every setting of the running simulation's dynamics must match
+        final Path config = dir.resolve("other.yaml");
+        for (final String changed : new String[] {"map_width: 16", "map_variant: portal", "world_size_variant: large",
+                                                  "foliage_variant: toxic", "daily_foliage_growth: 4", "energy_gain: 6",
+                                                  "min_procreation_energy: 16", "procreation_energy_loss: 11", "genome_length: 11",
+                                                  "min_mutations: 1", "max_mutations: 4", "mutation_variant: step",
+                                                  "behaviour_variant: crazy", "leaderboard_variant: sketch", "leaderboard_size: 6"}) {
+            Files.writeString(config, changed);
+            Settings changedSettings = new Settings();
+            assertTrue(changedSettings.loadConfig(config.toString()));
+            assertThrows(IOException.class, () -> Simulation.load(checkpoint, changedSettings, new StatTracker(), 0), changed);
+        }
+
+        // Starting values only shape the initial world, so resuming with other ones is fine
+        Files.writeString(config, String.join("\n", "starting_foliage: 3", "starting_animals: 7", "starting_energy: 12"));
+        Settings startingSettings = new Settings();
+        assertTrue(startingSettings.loadConfig(config.toString()));
+        assertEquals(0, Simulation.load(checkpoint, startingSettings, new StatTracker(), 0).map.getCurrentEpoch());
+
+        // Maps with RNGs whose state cannot be saved cannot be checkpointed
+        AbstractWorldMap m = new GlobeMap(rng, realSettings, new StatTracker());
+        assertThrows(IllegalStateException.class, () -> m.save(dir.resolve("random.bin")));
+        assertFalse(Files.exists(dir.resolve("random.bin")));
+    }
+
     // @Test
     // void testAbstractWorldMapPositionChanged() {
-    //     AbstractWorldMap m = new GlobeMap(rng, s, f);
+    //     AbstractWorldMap m = new GlobeMap(rng, s, new StatTracker(), f);
     //     assertThrows(AssertionError.class,
     //     () -> m.positionChanged(1337, new Vector2d(1, 1), new Vector2d(2, 2)));
 
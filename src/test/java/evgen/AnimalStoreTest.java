@@ -0,0 +1,97 @@
+package evgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import evgen.lib.IntList;
+import evgen.lib.Pair;
+
+public class AnimalStoreTest {
+    private static final long rngSeed = 20010911l;
+    private static final Settings s = mock(Settings.class);
+    private static final IWorldMap m = mock(GlobeMap.class);
+
+    private Random rng;
+    private AnimalStore store;
+
+    @BeforeEach
+    void setUp() {
+        rng = new Random(rngSeed);
+        store = new AnimalStore(2);
+        when(s.getGenomeLength()).thenReturn(10);
+        when(s.getStartingEnergy()).thenReturn(7);
+        when(s.getBehaviourType()).thenReturn(Settings.BehaviourType.PREDESTINED);
+        when(s.getMutationType()).thenReturn(Settings.MutationType.STEP);
+        when(m.getAnimalStore()).thenReturn(store);
+        when(m.getGenomePool()).thenReturn(new GenomePool());
+    }
+
+    @Test
+    void testAnimalStoreSlots() {
+        Animal a = new Animal(rng, s, m, new StatTracker(), new Vector2d(1, 2));
+        Animal b = new Animal(rng, s, m, new StatTracker(), new Vector2d(3, 4));
+        Animal c = new Animal(rng, s, m, new StatTracker(), new Vector2d(5, 6));
+        assertEquals(3, store.size());
+        assertEquals(3, store.getSlotCount());
+        assertSame(b, store.viewAt(b.getSlot()));
+        assertEquals(3, store.x[b.getSlot()]);
+        assertEquals(7, store.energy[c.getSlot()]);
+
+        // Slot of a removed animal is taken by the next one
+        final int freed = b.getSlot();
+        b.detach();
+        assertNull(store.viewAt(freed));
+        assertEquals(2, store.size());
+        Animal d = new Animal(rng, s, m, new StatTracker(), new Vector2d(7, 8));
+        assertEquals(freed, d.getSlot());
+        assertEquals(3, store.getSlotCount());
+        assertEquals(a, store.viewAt(a.getSlot()));
+    }
+
+    @Test
+    void testAnimalStoreDetachKeepsState() {
+        Animal a = new Animal(rng, s, m, new StatTracker(), new Vector2d(1, 2));
+        a.move(new Pair<>(new Vector2d(2, 2), MapDirection.SOUTH));
+        a.eat();
+        a.ageUp();
+        final String before = a.toString();
+
+        a.detach();
+        new Animal(rng, s, m, new StatTracker(), new Vector2d(0, 0));
+        assertEquals(before, a.toString());
+        assertEquals(new Vector2d(2, 2), a.getPosition());
+        assertEquals(MapDirection.SOUTH, a.getFacing());
+        assertEquals(1, a.getAge());
+        assertEquals(1, a.getEatenFoliage());
+    }
+
+    @Test
+    void testAnimalStoreAgeUpAll() {
+        when(s.getStartingEnergy()).thenReturn(3, 1, 2, 1);
+        Animal a = new Animal(rng, s, m, new StatTracker(), new Vector2d(0, 0));
+        Animal b = new Animal(rng, s, m, new StatTracker(), new Vector2d(0, 0));
+        Animal c = new Animal(rng, s, m, new StatTracker(), new Vector2d(0, 0));
+        Animal d = new Animal(rng, s, m, new StatTracker(), new Vector2d(0, 0));
+        c.detach();
+
+        IntList deaths = new IntList();
+        assertEquals(-3, store.ageUpAll(deaths));
+        assertEquals(2, deaths.size());
+        assertEquals(b.getSlot(), deaths.get(0));
+        assertEquals(d.getSlot(), deaths.get(1));
+        assertEquals(2, a.getEnergy());
+        assertEquals(1, a.getAge());
+        assertEquals(0, b.getEnergy());
+        // Detached animal is not aged with the rest
+        assertEquals(2, c.getEnergy());
+        assertEquals(0, c.getAge());
+    }
+}
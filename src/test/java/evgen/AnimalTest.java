@@ -1,6 +1,7 @@
 package evgen;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -18,6 +19,7 @@ public class AnimalTest {
     private static final Settings s = mock(Settings.class);
     private static final IWorldMap m = mock(GlobeMap.class);
 
+    private final GenomePool pool = new GenomePool();
     private Random rng;
 
     @BeforeAll
@@ -28,7 +30,7 @@ public class AnimalTest {
     @BeforeEach
     void setUp() {
         rng = new Random(rngSeed);
-        GenotypeMutationIndexGenerator.init(rng);
+        when(m.getGenomePool()).thenReturn(pool);
         when(s.getBehaviourType()).thenReturn(Settings.BehaviourType.PREDESTINED);
         when(s.getMutationType()).thenReturn(Settings.MutationType.STEP);
         when(s.getMinMutations()).thenReturn(0);
@@ -37,20 +39,20 @@ public class AnimalTest {
 
     @Test
     void testAnimalMove() {
-        Genotype g = mock(Genotype.class);
-        when(g.nextDirection()).thenReturn(5);
-        Animal a = new Animal(rng, s, m, new Vector2d(2, 2));
+        Animal a = new Animal(rng, s, m, new StatTracker(), new Vector2d(2, 2));
 
         // Assert that animal will move exactly as the map tells it to
         a.move(new Pair<Vector2d,MapDirection>(new Vector2d(0, 0), MapDirection.NORTH));
         assertEquals(new Vector2d(0, 0), a.getPosition());
         assertEquals(MapDirection.NORTH, a.getFacing());
+        // Position is only rebuilt once the animal has moved
+        assertSame(a.getPosition(), a.getPosition());
     }
 
     @Test
     void testAnimalAgeUp() {
         when(s.getStartingEnergy()).thenReturn(4);
-        Animal a = new Animal(rng, s, m, new Vector2d(2, 2));
+        Animal a = new Animal(rng, s, m, new StatTracker(), new Vector2d(2, 2));
         assertEquals(0, a.getAge());
         assertEquals(4, a.getEnergy());
         for (int i = 1; i < 4; ++i) {
@@ -68,13 +70,13 @@ public class AnimalTest {
         when(s.getProcreationEnergyLoss()).thenReturn(30);
         when(s.getStartingEnergy()).thenReturn(50, 50, 10, 40);
 
-        Genotype pg1 = new Genotype(rng, s);
+        Genotype pg1 = new Genotype(rng, s, pool);
         assertEquals("0045066526", pg1.toString());
-        Genotype pg2 = new Genotype(rng, s);
+        Genotype pg2 = new Genotype(rng, s, pool);
         assertEquals("1164677623", pg2.toString());
 
-        Animal pa1 = new Animal(rng, s, m, new Vector2d(2, 2), pg1);
-        Animal pa2 = new Animal(rng, s, m, new Vector2d(2, 2), pg2);
+        Animal pa1 = new Animal(rng, s, m, new StatTracker(), new Vector2d(2, 2), pg1);
+        Animal pa2 = new Animal(rng, s, m, new StatTracker(), new Vector2d(2, 2), pg2);
         assertEquals(50, pa1.getEnergy());
         assertEquals(50, pa2.getEnergy());
         assertEquals(0, pa1.getChildren());
@@ -90,8 +92,8 @@ public class AnimalTest {
 
         assertEquals("0045077623", ca.genes.toString());
 
-        pa1 = new Animal(rng, s, m, new Vector2d(2, 2), pg1);
-        pa2 = new Animal(rng, s, m, new Vector2d(2, 2), pg2);
+        pa1 = new Animal(rng, s, m, new StatTracker(), new Vector2d(2, 2), pg1);
+        pa2 = new Animal(rng, s, m, new StatTracker(), new Vector2d(2, 2), pg2);
         assertEquals(10, pa1.getEnergy());
         assertEquals(40, pa2.getEnergy());
 
@@ -0,0 +1,125 @@
+package evgen;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BinaryStatsTest {
+    @TempDir
+    Path dir;
+
+    // Tracker reporting whatever the test sets, far cheaper than restubbing a mock for every row
+    private static class FixedStatTracker extends StatTracker {
+        int epoch;
+        int animalCount;
+        int foliageCount;
+        int freeFieldsCount;
+        Genome mostPopularGenome;
+        double avgEnergy;
+        double avgLifeLength;
+
+        @Override
+        public int getEpoch() {
+            return epoch;
+        }
+
+        @Override
+        public int getAnimalCount() {
+            return animalCount;
+        }
+
+        @Override
+        public int getFoliageCount() {
+            return foliageCount;
+        }
+
+        @Override
+        public int getFreeFieldsCount() {
+            return freeFieldsCount;
+        }
+
+        @Override
+        public Genome getMostPopularGenome() {
+            return mostPopularGenome;
+        }
+
+        @Override
+        public double getAvgEnergy() {
+            return avgEnergy;
+        }
+
+        @Override
+        public double getAvgLifeLength() {
+            return avgLifeLength;
+        }
+    }
+
+    private static Genome genome(int... genes) {
+        final long[] words = new long[Genome.wordCount(genes.length)];
+        for (int i = 0; i < genes.length; ++i) {
+            Genome.setGene(words, i, genes[i]);
+        }
+        return new GenomePool().intern(words, genes.length);
+    }
+
+    @Test
+    void testBinaryStatsRoundTrip() throws IOException {
+        final Path path = dir.resolve("stats.bin");
+        final int rows = BinaryStatsWriter.BLOCK_ROWS + 100;
+        final Genome g1 = genome(0, 1, 2);
+        final Genome g2 = genome(7, 7);
+        FixedStatTracker st = new FixedStatTracker();
+        st.foliageCount = 3;
+        st.freeFieldsCount = 4;
+        st.avgLifeLength = 1.5;
+        try (BinaryStatsWriter w = new BinaryStatsWriter(path)) {
+            for (int i = 0; i < rows; ++i) {
+                st.epoch = i + 1;
+                st.animalCount = 2 * i;
+                st.mostPopularGenome = (i == 0) ? null : (i % 2 == 0) ? g1 : g2;
+                st.avgEnergy = i / 4.0;
+                w.epochLogged(st);
+            }
+        }
+
+        try (BinaryStatsReader r = new BinaryStatsReader(path)) {
+            assertEquals(rows, r.getRowCount());
+            assertEquals(2, r.getDictionarySize());
+            assertEquals(1, r.getInt(StatsColumn.EPOCH, 0));
+            assertEquals(2 * (rows - 1), r.getInt(StatsColumn.ANIMAL_COUNT, rows - 1));
+            assertEquals(1.5, r.getDouble(StatsColumn.AVG_LIFE_LENGTH, BinaryStatsWriter.BLOCK_ROWS));
+            assertEquals("null", r.getGenome(r.getInt(StatsColumn.MOST_POPULAR_GENOME, 0)));
+            assertEquals("77", r.getGenome(r.getInt(StatsColumn.MOST_POPULAR_GENOME, 1)));
+            assertEquals("012", r.getGenome(r.getInt(StatsColumn.MOST_POPULAR_GENOME, 2)));
+
+            // Slice across the block boundary
+            final int from = BinaryStatsWriter.BLOCK_ROWS - 10;
+            final int[] epochs = r.readInts(StatsColumn.EPOCH, from, 20);
+            final double[] energy = r.readDoubles(StatsColumn.AVG_ENERGY, from, 20);
+            final int[] expectedEpochs = new int[20];
+            final double[] expectedEnergy = new double[20];
+            for (int i = 0; i < 20; ++i) {
+                expectedEpochs[i] = from + i + 1;
+                expectedEnergy[i] = (from + i) / 4.0;
+            }
+            assertArrayEquals(expectedEpochs, epochs);
+            assertArrayEquals(expectedEnergy, energy);
+            assertEquals(rows, r.readInts(StatsColumn.FOLIAGE_COUNT, 0, rows).length);
+            assertThrows(IndexOutOfBoundsException.class, () -> r.getInt(StatsColumn.EPOCH, rows));
+        }
+    }
+
+    @Test
+    void testBinaryStatsRejectsOtherFiles() throws IOException {
+        final Path path = dir.resolve("stats.csv");
+        Files.writeString(path, "day,animalCount,foliageCount,freeFieldsCount,mostPopularGenome,avgEnergyLvl,avgLifeLength,topGenomes");
+        assertThrows(IOException.class, () -> new BinaryStatsReader(path));
+    }
+}
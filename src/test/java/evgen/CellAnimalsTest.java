@@ -0,0 +1,100 @@
+package evgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CellAnimalsTest {
+    private static final long rngSeed = 20010911l;
+    private static final Settings s = mock(Settings.class);
+    private static final IWorldMap m = mock(GlobeMap.class);
+
+    private Random rng;
+    private AnimalStore store;
+    private int nextID;
+
+    @BeforeEach
+    void setUp() {
+        rng = new Random(rngSeed);
+        store = new AnimalStore();
+        when(s.getGenomeLength()).thenReturn(10);
+        when(s.getStartingEnergy()).thenReturn(7);
+        when(s.getBehaviourType()).thenReturn(Settings.BehaviourType.PREDESTINED);
+        when(s.getMutationType()).thenReturn(Settings.MutationType.STEP);
+        when(m.getAnimalStore()).thenReturn(store);
+        when(m.getGenomePool()).thenReturn(new GenomePool());
+        nextID = 0;
+        when(m.getNextAnimalID()).thenAnswer(inv -> nextID++);
+    }
+
+    private Animal animal(int energy) {
+        Animal a = new Animal(rng, s, m, new StatTracker(), new Vector2d(0, 0));
+        store.energy[a.getSlot()] = energy;
+        return a;
+    }
+
+    @Test
+    void testCellAnimalsSmall() {
+        CellAnimals c = new CellAnimals();
+        Animal a = animal(5);
+        Animal b = animal(9);
+        Animal d = animal(7);
+        assertNull(c.first());
+        assertNull(c.second());
+
+        assertTrue(c.add(a));
+        assertFalse(c.add(a));
+        assertSame(a, c.first());
+        assertNull(c.second());
+
+        assertTrue(c.add(b));
+        assertTrue(c.add(d));
+        assertSame(b, c.first());
+        assertSame(d, c.second());
+        assertEquals(3, c.size());
+
+        assertTrue(c.remove(b));
+        assertFalse(c.remove(b));
+        assertFalse(c.contains(b));
+        assertSame(d, c.first());
+        assertSame(a, c.second());
+    }
+
+    @Test
+    void testCellAnimalsMatchesTreeSet() {
+        final Animal[] pool = new Animal[40];
+        for (int i = 0; i < pool.length; ++i) {
+            pool[i] = animal(rng.nextInt(10));
+        }
+        CellAnimals c = new CellAnimals();
+        TreeSet<Animal> expected = new TreeSet<>();
+        for (int step = 0; step < 2000; ++step) {
+            final Animal a = pool[rng.nextInt(pool.length)];
+            if (rng.nextBoolean()) {
+                assertEquals(expected.add(a), c.add(a));
+            } else {
+                assertEquals(expected.remove(a), c.remove(a));
+            }
+            assertEquals(expected.size(), c.size());
+            for (final Animal x : pool) {
+                assertEquals(expected.contains(x), c.contains(x));
+            }
+            if (!expected.isEmpty()) {
+                assertSame(expected.first(), c.first());
+            }
+            if (expected.size() > 1) {
+                assertSame(expected.higher(expected.first()), c.second());
+            }
+        }
+    }
+}
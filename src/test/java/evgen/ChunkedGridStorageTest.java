@@ -0,0 +1,130 @@
+package evgen;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ChunkedGridStorageTest {
+    @Test
+    void testChunkedGridStorageLazyChunks() {
+        ChunkedGridStorage g = new ChunkedGridStorage(10000, 10000);
+        assertEquals(100000000, g.size());
+        assertEquals(0, g.getAllocatedChunkCount());
+        assertNull(g.animalsAt(g.toIndex(5000, 5000)));
+        assertFalse(g.hasPlant(g.toIndex(9999, 9999)));
+
+        Animal a = mock(Animal.class);
+        assertTrue(g.addAnimal(g.toIndex(63, 63), a));
+        assertTrue(g.addPlant(g.toIndex(0, 0)));
+        assertEquals(1, g.getAllocatedChunkCount());
+        assertTrue(g.addPlant(g.toIndex(64, 63)));
+        assertTrue(g.addPlant(g.toIndex(9999, 9999)));
+        assertEquals(3, g.getAllocatedChunkCount());
+        assertEquals(a, g.firstAnimalAt(g.toIndex(63, 63)));
+        assertNull(g.firstAnimalAt(g.toIndex(64, 63)));
+        assertEquals(3, g.getPlantCount());
+    }
+
+    @Test
+    void testChunkedGridStorageReleasesEmpty() {
+        ChunkedGridStorage g = new ChunkedGridStorage(10000, 10000);
+        Animal a = mock(Animal.class);
+        Animal b = mock(Animal.class);
+        final int cell = g.toIndex(100, 100);
+        final int planted = g.toIndex(200, 200);
+
+        // Container is dropped once its last animal leaves
+        assertTrue(g.addAnimal(cell, a));
+        assertTrue(g.addAnimal(cell, b));
+        assertTrue(g.removeAnimal(cell, a));
+        assertEquals(b, g.firstAnimalAt(cell));
+        assertTrue(g.removeAnimal(cell, b));
+        assertNull(g.animalsAt(cell));
+        assertEquals(1, g.getAllocatedChunkCount());
+        g.releaseEmpty();
+        assertEquals(0, g.getAllocatedChunkCount());
+
+        // Same for animals passing through in untracked updates
+        assertTrue(g.addAnimalUntracked(cell, a));
+        assertTrue(g.removeAnimalUntracked(cell, a));
+        g.updateOccupancy(cell);
+        assertNull(g.animalsAt(cell));
+        g.releaseEmpty();
+        assertEquals(0, g.getAllocatedChunkCount());
+
+        // Chunk with a plant stays, but not its containers
+        assertTrue(g.addPlant(planted));
+        assertTrue(g.addAnimal(planted, a));
+        assertTrue(g.removeAnimal(planted, a));
+        g.releaseEmpty();
+        assertEquals(1, g.getAllocatedChunkCount());
+        assertTrue(g.hasPlant(planted));
+        assertNull(g.animalsAt(planted));
+        assertTrue(g.removePlant(planted));
+        g.releaseEmpty();
+        assertEquals(0, g.getAllocatedChunkCount());
+        assertFalse(g.hasPlant(planted));
+        assertEquals(0, g.getPlantCount());
+
+        // Occupied chunk is kept
+        assertTrue(g.addAnimal(cell, a));
+        assertTrue(g.addAnimal(planted, b));
+        assertTrue(g.removeAnimal(planted, b));
+        g.releaseEmpty();
+        assertEquals(1, g.getAllocatedChunkCount());
+        assertEquals(a, g.firstAnimalAt(cell));
+        assertEquals(1, g.getOccupiedCount());
+    }
+
+    @Test
+    void testChunkedGridStorageMatchesGridStorage() {
+        // Uneven size, so that edge chunks are partial
+        GridStorage dense = new GridStorage(100, 70);
+        ChunkedGridStorage chunked = new ChunkedGridStorage(100, 70);
+        Animal[] animals = new Animal[20];
+        for (int i = 0; i < animals.length; ++i) {
+            animals[i] = mock(Animal.class);
+        }
+        Random r = new Random(7);
+        for (int i = 0; i < 5000; ++i) {
+            final int cell = r.nextInt(100 * 70 / 20) * 20 + r.nextInt(3);
+            final Animal a = animals[r.nextInt(animals.length)];
+            switch (r.nextInt(5)) {
+                case 0 -> assertEquals(dense.addAnimal(cell, a), chunked.addAnimal(cell, a));
+                case 1 -> assertEquals(dense.removeAnimal(cell, a), chunked.removeAnimal(cell, a));
+                case 2 -> assertEquals(dense.addPlant(cell), chunked.addPlant(cell));
+                case 3 -> assertEquals(dense.removePlant(cell), chunked.removePlant(cell));
+                default -> {
+                    assertEquals(dense.removeAnimalUntracked(cell, a), chunked.removeAnimalUntracked(cell, a));
+                    dense.updateOccupancy(cell);
+                    chunked.updateOccupancy(cell);
+                }
+            }
+            if (r.nextInt(50) == 0) {
+                dense.releaseEmpty();
+                chunked.releaseEmpty();
+            }
+            assertEquals(dense.hasPlant(cell), chunked.hasPlant(cell));
+            assertEquals(dense.containsAnimal(cell, a), chunked.containsAnimal(cell, a));
+            assertEquals(dense.getPlantCount(), chunked.getPlantCount());
+            assertEquals(dense.getOccupiedCount(), chunked.getOccupiedCount());
+        }
+        // Occupied cells are listed in the same order, so runs do not depend on the storage used
+        for (int i = 0; i < dense.getOccupiedCount(); ++i) {
+            assertEquals(dense.getOccupiedCell(i), chunked.getOccupiedCell(i));
+        }
+        // Plants are listed in ascending order by both
+        final int[] densePlants = new int[dense.getPlantCount()];
+        final int[] chunkedPlants = new int[chunked.getPlantCount()];
+        assertEquals(densePlants.length, dense.getPlantCells(densePlants));
+        assertEquals(chunkedPlants.length, chunked.getPlantCells(chunkedPlants));
+        assertArrayEquals(densePlants, chunkedPlants);
+    }
+}
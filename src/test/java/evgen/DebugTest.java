@@ -0,0 +1,69 @@
+package evgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DebugTest {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private PrintStream stdout;
+
+    @BeforeEach
+    void setUp() {
+        stdout = System.out;
+        System.setOut(new PrintStream(out, true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(stdout);
+        Debug.setDebug(false);
+        for (final Debug.Category c : Debug.Category.values()) {
+            Debug.setLevel(c, Debug.Level.TRACE);
+        }
+    }
+
+    @Test
+    void testDebugGuardedMessages() {
+        final int[] built = {0};
+        for (final boolean on : new boolean[] {false, true}) {
+            Debug.setDebug(on);
+            Debug.setLevel(Debug.Category.BIRTH, Debug.Level.INFO);
+            if (Debug.isEnabled(Debug.Category.BIRTH, Debug.Level.TRACE)) {
+                ++built[0];
+                Debug.println("trace");
+            }
+            if (Debug.isEnabled(Debug.Category.BIRTH, Debug.Level.INFO)) {
+                ++built[0];
+                Debug.print("info ");
+                Debug.println(1);
+            }
+        }
+        assertEquals(1, built[0]);
+        assertEquals("[DEBUG] info [DEBUG] 1" + System.lineSeparator(), out.toString());
+    }
+
+    @Test
+    void testDebugLevels() {
+        assertFalse(Debug.isEnabled(Debug.Category.DEATH, Debug.Level.INFO));
+        Debug.setDebug(true);
+        assertTrue(Debug.isEnabled(Debug.Category.DEATH, Debug.Level.TRACE));
+        Debug.setLevel(Debug.Category.DEATH, Debug.Level.OFF);
+        assertFalse(Debug.isEnabled(Debug.Category.DEATH, Debug.Level.INFO));
+        assertTrue(Debug.isEnabled(Debug.Category.EPOCH, Debug.Level.INFO));
+        assertEquals("", out.toString());
+
+        // Unguarded calls print nothing while debug is off
+        Debug.setDebug(false);
+        Debug.print("unguarded ");
+        Debug.println("unguarded");
+        assertEquals("", out.toString());
+    }
+}
@@ -0,0 +1,67 @@
+package evgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import evgen.lib.SplitMix64;
+
+public class EnsembleRunnerTest {
+    private static final long baseSeed = 20010911l;
+    private static final int runs = 4;
+    private static final int maxEpochs = 40;
+
+    private static String row(StatTracker st) {
+        return String.join(",", Integer.toString(st.getEpoch()), Integer.toString(st.getAnimalCount()),
+            Integer.toString(st.getFoliageCount()), Integer.toString(st.getFreeFieldsCount()),
+            String.valueOf(st.getMostPopularGenome()), Double.toString(st.getAvgEnergy()),
+            Double.toString(st.getAvgLifeLength()));
+    }
+
+    /**
+     * Run an ensemble and group its output by replicate
+     * @return rows of every replicate, keyed by run index, each prefixed with the seed
+     */
+    private static Map<Integer, List<String>> runEnsemble(Path csv, int poolSize) throws IOException {
+        final long epochs = new EnsembleRunner(new Settings(), baseSeed, runs, maxEpochs, poolSize).run(csv);
+        List<String> lines = Files.readAllLines(csv);
+        assertEquals(EnsembleRunner.CSV_HEADER, lines.get(0));
+        assertEquals(epochs, lines.size() - 1);
+        Map<Integer, List<String>> byRun = new TreeMap<>();
+        for (final String line : lines.subList(1, lines.size())) {
+            final int comma = line.indexOf(',');
+            byRun.computeIfAbsent(Integer.parseInt(line.substring(0, comma)), k -> new ArrayList<>()).add(line.substring(comma + 1));
+        }
+        return byRun;
+    }
+
+    @Test
+    void testEnsembleRunnerReplicatesUseConsecutiveSeeds(@TempDir Path dir) throws IOException {
+        final Map<Integer, List<String>> byRun = runEnsemble(dir.resolve("ensemble.csv"), 2);
+        assertEquals(runs, byRun.size());
+        for (int run = 0; run < runs; ++run) {
+            // Replicate run alone with seed baseSeed + run
+            final long seed = baseSeed + run;
+            List<String> expected = new ArrayList<>();
+            StatTracker st = new StatTracker();
+            st.addObserver(s -> expected.add(seed + "," + row(s)));
+            new Simulation(new SplitMix64(seed), new Settings(), st, 0).runFor(maxEpochs);
+            assertEquals(expected, byRun.get(run));
+        }
+    }
+
+    @Test
+    void testEnsembleRunnerIndependentOfPoolSize(@TempDir Path dir) throws IOException {
+        final Map<Integer, List<String>> sequential = runEnsemble(dir.resolve("sequential.csv"), 1);
+        assertEquals(sequential, runEnsemble(dir.resolve("concurrent.csv"), runs));
+    }
+}
@@ -1,10 +1,13 @@
 package evgen;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -40,10 +43,36 @@ public class EquatorialGrowerTest {
 
         for (int x = 0; x < 5; ++x) {
             for (int y = 0; y < 5; ++y) {
-                assertEquals(y == 2, g.preferredSpots.contains(new Vector2d(x, y)));
-                assertEquals(y == 2, g.availablePreferredSpots.contains(new Vector2d(x, y)));
-                assertEquals(y != 2, g.availableRegularSpots.contains(new Vector2d(x, y)));
+                final int cell = y * 5 + x;
+                assertEquals(y == 2, g.preferredSpots.contains(cell));
+                assertEquals(y == 2, g.isPreferred(new Vector2d(x, y)));
+                assertEquals(y == 2, g.availablePreferredSpots.contains(cell));
+                assertEquals(y != 2, g.availableRegularSpots.contains(cell));
             }
         }
     }
+
+    @Test
+    void testEquatorialGrowerGetPlantCells() {
+        EquatorialGrower g = new EquatorialGrower(rng, s, m);
+        int[] out = new int[30];
+
+        assertEquals(4, g.getPlantCells(4, out));
+        assertEquals(21, g.getFreeSpotsCount());
+        Set<Integer> grown = new HashSet<>();
+        for (int i = 0; i < 4; ++i) {
+            assertTrue(grown.add(out[i]));
+        }
+
+        // Only 21 spots left; all of them get used, each once
+        assertEquals(21, g.getPlantCells(30, out));
+        assertEquals(0, g.getFreeSpotsCount());
+        for (int i = 0; i < 21; ++i) {
+            assertTrue(grown.add(out[i]));
+        }
+        assertEquals(0, g.getPlantCells(3, out));
+
+        g.plantEaten(out[0]);
+        assertEquals(1, g.getPlantCells(3, out));
+    }
 }
@@ -0,0 +1,64 @@
+package evgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import evgen.lib.Pair;
+import evgen.lib.SplitMix64;
+
+public class GenomeLeaderboardTest {
+    private static Genome genome(long w) {
+        return new Genome(new long[] {w}, 20);
+    }
+
+    @Test
+    void testExactGenomeLeaderboard() {
+        IGenomeLeaderboard l = new ExactGenomeLeaderboard();
+        assertNull(l.getMostPopular());
+        Genome a = genome(1);
+        Genome b = genome(2);
+        l.genomeAdded(a);
+        l.genomeAdded(b);
+        l.genomeAdded(b);
+        assertEquals(b, l.getMostPopular());
+        assertEquals(List.of(new Pair<>(b, 2), new Pair<>(a, 1)), l.getTop(3));
+        l.genomeRemoved(b);
+        l.genomeRemoved(b);
+        assertEquals(0, l.count(b));
+        assertEquals(List.of(new Pair<>(a, 1)), l.getTop(3));
+    }
+
+    @Test
+    void testSketchGenomeLeaderboardFindsHeavyHitters() {
+        IGenomeLeaderboard exact = new ExactGenomeLeaderboard();
+        IGenomeLeaderboard sketch = new SketchGenomeLeaderboard(20);
+        SplitMix64 r = new SplitMix64(11);
+        // Five popular genomes among lots of unique ones
+        for (int i = 0; i < 20000; ++i) {
+            final Genome g = (i % 4 == 0) ? genome(r.nextInt(5)) : genome(1000 + i);
+            exact.genomeAdded(g);
+            sketch.genomeAdded(g);
+        }
+        // Some of the popular ones die off, so the order changes
+        for (int i = 0; i < 600; ++i) {
+            exact.genomeRemoved(genome(0));
+            sketch.genomeRemoved(genome(0));
+        }
+
+        final List<Pair<Genome, Integer>> expected = exact.getTop(5);
+        final List<Pair<Genome, Integer>> actual = sketch.getTop(5);
+        assertEquals(5, actual.size());
+        for (int i = 0; i < 5; ++i) {
+            assertEquals(expected.get(i).first, actual.get(i).first);
+            // Sketch never underestimates
+            assertTrue(actual.get(i).second >= expected.get(i).second);
+            assertTrue(actual.get(i).second <= expected.get(i).second + 100);
+        }
+        assertEquals(exact.getMostPopular(), sketch.getMostPopular());
+    }
+}
@@ -0,0 +1,57 @@
+package evgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import evgen.lib.SplitMix64;
+
+public class GenomePoolTest {
+    private static long[] words(long... w) {
+        return w;
+    }
+
+    @Test
+    void testGenomePoolInternsEqualGenomes() {
+        GenomePool pool = new GenomePool();
+        final int sizeBefore = pool.size();
+
+        Genome g1 = pool.intern(words(0x123456L, 0x7L), 22);
+        Genome g2 = pool.intern(words(0x123456L, 0x7L), 22);
+        Genome g3 = pool.intern(words(0x123456L, 0x7L), 23);
+        assertSame(g1, g2);
+        assertNotSame(g1, g3);
+        assertEquals(sizeBefore + 2, pool.size());
+        assertEquals("6212344000000000000007", g1.toString());
+
+        // Genome stays pooled until its last reference is released
+        pool.release(g1);
+        assertSame(g1, pool.intern(words(0x123456L, 0x7L), 22));
+        pool.release(g1);
+        pool.release(g2);
+        assertEquals(sizeBefore + 1, pool.size());
+        Genome g4 = pool.intern(words(0x123456L, 0x7L), 22);
+        assertNotSame(g1, g4);
+        pool.release(g3);
+        pool.release(g4);
+        assertEquals(sizeBefore, pool.size());
+    }
+
+    @Test
+    void testGenomePoolOwnedByMap() {
+        Settings settings = new Settings();
+        StatTracker st = new StatTracker();
+        AbstractWorldMap m1 = new GlobeMap(new SplitMix64(1), settings, st);
+        AbstractWorldMap m2 = new GlobeMap(new SplitMix64(1), settings, st);
+        Animal a = new Animal(new SplitMix64(2), settings, m1, st);
+        assertEquals(1, m1.getGenomePool().size());
+        assertEquals(0, m2.getGenomePool().size());
+        Genome g = m1.getGenomePool().intern(a.genes.getGenome().copyWords(), settings.getGenomeLength());
+        assertSame(a.genes.getGenome(), g);
+        m1.getGenomePool().release(g);
+        a.death();
+        assertEquals(0, m1.getGenomePool().size());
+    }
+}
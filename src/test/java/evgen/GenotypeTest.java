@@ -1,6 +1,8 @@
 package evgen;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -15,6 +17,7 @@ public class GenotypeTest {
     private static final int mockGenomeLength = 10;
     private static final Settings s = mock(Settings.class);
 
+    private final GenomePool pool = new GenomePool();
     private Random rng;
 
     @BeforeAll
@@ -25,7 +28,6 @@ public class GenotypeTest {
     @BeforeEach
     void setUp() {
         rng = new Random(rngSeed);
-        GenotypeMutationIndexGenerator.init(rng);
         when(s.getBehaviourType()).thenReturn(Settings.BehaviourType.PREDESTINED);
         when(s.getMutationType()).thenReturn(Settings.MutationType.STEP);
         when(s.getMinMutations()).thenReturn(0);
@@ -36,13 +38,15 @@ public class GenotypeTest {
     void testGenotypeDefaultConstructorAndNextDirection() {
         final int[] expectedGenome = {0, 0, 4, 5, 0, 6, 6, 5, 2, 6};
 
-        Genotype g = new Genotype(rng, s);
+        Genotype g = new Genotype(rng, s, pool);
         assertEquals("0045066526", g.toString());
-        assertEquals(0, g.getNextGeneIndex());
+        assertEquals(0, g.getFirstGeneIndex());
 
+        int cursor = g.getFirstGeneIndex();
         for (int i = 0; i < 111; ++i) {
-            assertEquals(i % mockGenomeLength, g.getNextGeneIndex());
-            assertEquals(expectedGenome[i % mockGenomeLength], g.nextDirection());
+            assertEquals(i % mockGenomeLength, cursor);
+            assertEquals(expectedGenome[i % mockGenomeLength], g.getGene(cursor));
+            cursor = g.advanceGeneIndex(cursor);
         }
     }
 
@@ -51,10 +55,11 @@ public class GenotypeTest {
         when(s.getBehaviourType()).thenReturn(Settings.BehaviourType.CRAZY);
 
         final int[] expectedGenome = {0, 0, 4, 5, 0, 6, 6, 5, 2, 6};
-        Genotype g = new Genotype(rng, s);
+        Genotype g = new Genotype(rng, s, pool);
         assertEquals("0045066526", g.toString());
-        assertEquals(0, g.getNextGeneIndex());
+        assertEquals(0, g.getFirstGeneIndex());
 
+        int cursor = g.getFirstGeneIndex();
         final int[] crazyEngagesAtIndices = {12, 31, 32, 33, 39};
         final int[] crazyJumpsTo = {8, 5, 5, 3, 1};
         int eventIndex = 0;
@@ -63,26 +68,27 @@ public class GenotypeTest {
             if (i == crazyEngagesAtIndices[eventIndex]) {
                 expectedIndex = crazyJumpsTo[eventIndex++];
             }
-            assertEquals(expectedIndex, g.getNextGeneIndex());
-            assertEquals(expectedGenome[expectedIndex], g.nextDirection());
+            assertEquals(expectedIndex, cursor);
+            assertEquals(expectedGenome[expectedIndex], g.getGene(cursor));
+            cursor = g.advanceGeneIndex(cursor);
             expectedIndex = (expectedIndex == mockGenomeLength-1) ? 0 : ++expectedIndex; 
         }
     }
 
     @Test
     void testGenotypeChildConstructorNoMutations() {
-        Genotype tg1 = new Genotype(rng, s);
+        Genotype tg1 = new Genotype(rng, s, pool);
         assertEquals("0045066526", tg1.toString());
-        assertEquals(0, tg1.getNextGeneIndex());
+        assertEquals(0, tg1.getFirstGeneIndex());
 
-        Genotype tg2 = new Genotype(rng, s);
+        Genotype tg2 = new Genotype(rng, s, pool);
         assertEquals("1164677623", tg2.toString());
-        assertEquals(7, tg2.getNextGeneIndex());
+        assertEquals(7, tg2.getFirstGeneIndex());
 
         // switchSides will be false
         Genotype cg = new Genotype(tg1, tg2, 0.5);
         assertEquals("0045077623", cg.toString());
-        assertEquals(5, cg.getNextGeneIndex());
+        assertEquals(5, cg.getFirstGeneIndex());
 
         // switchSides will be true
         for (int i = 0; i < 6; ++i) {
@@ -90,17 +96,17 @@ public class GenotypeTest {
         }
         Genotype cg2 = new Genotype(tg1, tg2, 0.5);
         assertEquals("1164666526", cg2.toString());
-        assertEquals(6, cg2.getNextGeneIndex());
+        assertEquals(6, cg2.getFirstGeneIndex());
 
         // Check different ratio; switchSides will be false
         Genotype cg3 = new Genotype(tg1, tg2, 0.29);
         assertEquals("0064677623", cg3.toString());
-        assertEquals(7, cg3.getNextGeneIndex());
+        assertEquals(7, cg3.getFirstGeneIndex());
 
         // Check different ratio, switchSides will be true
         Genotype cg4 = new Genotype(tg1, tg2, 0.13);
         assertEquals("1164677626", cg4.toString());
-        assertEquals(1, cg4.getNextGeneIndex());
+        assertEquals(1, cg4.getFirstGeneIndex());
     }
 
     @Test
@@ -109,23 +115,23 @@ public class GenotypeTest {
         when(s.getMinMutations()).thenReturn(10);
         when(s.getMaxMutations()).thenReturn(10);
 
-        Genotype tg1 = new Genotype(rng, s);
+        Genotype tg1 = new Genotype(rng, s, pool);
         assertEquals("0045066526", tg1.toString());
-        assertEquals(0, tg1.getNextGeneIndex());
+        assertEquals(0, tg1.getFirstGeneIndex());
 
-        Genotype tg2 = new Genotype(rng, s);
+        Genotype tg2 = new Genotype(rng, s, pool);
         assertEquals("1164677623", tg2.toString());
-        assertEquals(7, tg2.getNextGeneIndex());
+        assertEquals(7, tg2.getFirstGeneIndex());
 
         // switchSides will be false
         Genotype cg = new Genotype(tg1, tg2, 0.5);
         assertEquals("7154766534", cg.toString());
-        assertEquals(5, cg.getNextGeneIndex());
+        assertEquals(5, cg.getFirstGeneIndex());
 
         // switchSides will be true
         Genotype cg2 = new Genotype(tg1, tg2, 0.3);
-        assertEquals("2073706415", cg2.toString());
-        assertEquals(0, cg2.getNextGeneIndex());
+        assertEquals("0273766615", cg2.toString());
+        assertEquals(0, cg2.getFirstGeneIndex());
     }
 
     @Test
@@ -134,21 +140,50 @@ public class GenotypeTest {
         when(s.getMaxMutations()).thenReturn(4);
         when(s.getMutationType()).thenReturn(Settings.MutationType.RANDOM);
 
-        Genotype tg1 = new Genotype(rng, s);
+        Genotype tg1 = new Genotype(rng, s, pool);
         assertEquals("0045066526", tg1.toString());
-        assertEquals(0, tg1.getNextGeneIndex());
+        assertEquals(0, tg1.getFirstGeneIndex());
 
-        Genotype tg2 = new Genotype(rng, s);
+        Genotype tg2 = new Genotype(rng, s, pool);
         assertEquals("1164677623", tg2.toString());
-        assertEquals(7, tg2.getNextGeneIndex());
+        assertEquals(7, tg2.getFirstGeneIndex());
 
         // switchSides will be false; 3 mutations: indices 1, 7, 9 to 3, 0, 0, respectively
         Genotype cg = new Genotype(tg1, tg2, 0.5);
         assertEquals("0345077020", cg.toString());
 
-        // switchSides will be true; 3 mutations: indices 8, 7, 3 to 1, 4, 3, respectively
+        // switchSides will be true; 3 mutations: indices 1, 3, 8 to 2, 3, 1, respectively
         Genotype cg2 = new Genotype(tg1, tg2, 0.2);
-        assertEquals("1163677416", cg2.toString());
+        assertEquals("1263677616", cg2.toString());
 
     }
+
+    @Test
+    void testGenotypeChildConstructorAcrossPackedWords() {
+        // Long enough to span three packed words
+        final int length = 50;
+        Settings ls = mock(Settings.class);
+        when(ls.getGenomeLength()).thenReturn(length);
+        when(ls.getBehaviourType()).thenReturn(Settings.BehaviourType.PREDESTINED);
+        when(ls.getMutationType()).thenReturn(Settings.MutationType.STEP);
+
+        Genotype tg1 = new Genotype(rng, ls, pool);
+        Genotype tg2 = new Genotype(rng, ls, pool);
+        final String s1 = tg1.toString();
+        final String s2 = tg2.toString();
+        assertEquals(length, s1.length());
+
+        for (final double ratio : new double[] {0.02, 0.3, 0.42, 0.5, 0.84, 0.99}) {
+            final int cut = (int)(ratio * length);
+            final String noSwitch = s1.substring(0, cut) + s2.substring(cut);
+            final String withSwitch = s2.substring(0, length - cut) + s1.substring(length - cut);
+            final String child = new Genotype(tg1, tg2, ratio).toString();
+            assertTrue(child.equals(noSwitch) || child.equals(withSwitch), child);
+        }
+
+        Genotype copy = new Genotype(tg1, tg1, 0.5);
+        assertEquals(tg1, copy);
+        assertEquals(tg1.hashCode(), copy.hashCode());
+        assertNotEquals(tg1, tg2);
+    }
 }
@@ -32,7 +32,7 @@ public class GlobeMapTest {
 
     @Test
     void testGlobeMapAttemptMove() {
-        GlobeMap m = new GlobeMap(rng, s, f);
+        GlobeMap m = new GlobeMap(rng, s, new StatTracker(), f);
         Animal a = mock(Animal.class);
         when(a.getPosition()).thenReturn(new Vector2d(2, 2));
         when(a.getFacing()).thenReturn(MapDirection.NORTH);
@@ -65,4 +65,34 @@ public class GlobeMapTest {
         when(a.getFacing()).thenReturn(MapDirection.NORTHEAST);
         assertEquals(new Pair<>(new Vector2d(0, 1), MapDirection.NORTHEAST), m.getMoveTarget(a));
     }
+
+    @Test
+    void testGlobeMapMoveTableMatchesRules() {
+        final int[][] sizes = {{1, 1}, {1, 3}, {2, 5}, {5, 2}, {5, 5}};
+        for (final int[] size : sizes) {
+            when(s.getMapWidth()).thenReturn(size[0]);
+            when(s.getMapHeight()).thenReturn(size[1]);
+            GlobeMap m = new GlobeMap(rng, s, new StatTracker(), f);
+            for (int x = 0; x < size[0]; ++x) {
+                for (int y = 0; y < size[1]; ++y) {
+                    for (int d = 0; d < MapDirection.directionCount; ++d) {
+                        Animal a = mock(Animal.class);
+                        when(a.getX()).thenReturn(x);
+                        when(a.getY()).thenReturn(y);
+                        when(a.getFacing()).thenReturn(MapDirection.fromInt(d));
+                        assertEquals(m.resolveMove(x, y, MapDirection.fromInt(d)), m.getPackedMoveTarget(a),
+                                     String.format("size=%dx%d, x=%d, y=%d, d=%d", size[0], size[1], x, y, d));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPackedMoveRoundTrip() {
+        final int packed = AbstractWorldMap.packMove(9999, 9998, 7);
+        assertEquals(9999, AbstractWorldMap.moveX(packed));
+        assertEquals(9998, AbstractWorldMap.moveY(packed));
+        assertEquals(7, AbstractWorldMap.moveFacing(packed));
+    }
 }
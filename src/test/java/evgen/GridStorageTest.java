@@ -0,0 +1,90 @@
+package evgen;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class GridStorageTest {
+    @Test
+    void testGridStorageIndexing() {
+        GridStorage g = new GridStorage(7, 3);
+        assertEquals(21, g.size());
+        assertEquals(0, g.toIndex(0, 0));
+        assertEquals(6, g.toIndex(6, 0));
+        assertEquals(7, g.toIndex(0, 1));
+        assertEquals(20, g.toIndex(new Vector2d(6, 2)));
+        for (int i = 0; i < g.size(); ++i) {
+            assertEquals(i, g.toIndex(g.toPosition(i)));
+        }
+    }
+
+    @Test
+    void testGridStorageAnimals() {
+        GridStorage g = new GridStorage(5, 5);
+        Animal a = mock(Animal.class);
+        assertNull(g.animalsAt(12));
+        assertNull(g.firstAnimalAt(12));
+        assertFalse(g.removeAnimal(12, a));
+
+        assertTrue(g.addAnimal(12, a));
+        assertFalse(g.addAnimal(12, a));
+        assertTrue(g.containsAnimal(12, a));
+        assertFalse(g.containsAnimal(13, a));
+        assertEquals(a, g.firstAnimalAt(12));
+
+        assertTrue(g.removeAnimal(12, a));
+        assertFalse(g.containsAnimal(12, a));
+        assertNull(g.firstAnimalAt(12));
+    }
+
+    @Test
+    void testGridStorageOccupiedCells() {
+        GridStorage g = new GridStorage(5, 5);
+        Animal a = mock(Animal.class);
+        Animal b = mock(Animal.class);
+        assertEquals(0, g.getOccupiedCount());
+
+        g.addAnimal(7, a);
+        g.addAnimal(7, b);
+        g.addAnimal(19, mock(Animal.class));
+        assertEquals(2, g.getOccupiedCount());
+        assertEquals(Set.of(7, 19), Set.of(g.getOccupiedCell(0), g.getOccupiedCell(1)));
+
+        // Cell stays occupied until its last animal leaves
+        g.removeAnimal(7, a);
+        assertEquals(2, g.getOccupiedCount());
+        g.removeAnimal(7, b);
+        assertEquals(1, g.getOccupiedCount());
+        assertEquals(19, g.getOccupiedCell(0));
+
+        g.addAnimal(7, a);
+        assertEquals(2, g.getOccupiedCount());
+        assertEquals(7, g.getOccupiedCell(1));
+    }
+
+    @Test
+    void testGridStoragePlants() {
+        GridStorage g = new GridStorage(5, 5);
+        assertFalse(g.hasPlant(3));
+        assertTrue(g.addPlant(3));
+        assertFalse(g.addPlant(3));
+        assertTrue(g.addPlant(24));
+        assertEquals(2, g.getPlantCount());
+        assertTrue(g.hasPlant(3));
+        final int[] cells = new int[2];
+        assertEquals(2, g.getPlantCells(cells));
+        assertArrayEquals(new int[] {3, 24}, cells);
+
+        assertTrue(g.removePlant(3));
+        assertFalse(g.removePlant(3));
+        assertFalse(g.hasPlant(3));
+        assertEquals(1, g.getPlantCount());
+    }
+}
@@ -0,0 +1,51 @@
+package evgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class HeadlessRunnerTest {
+    @Test
+    void testHeadlessRunnerRejectsMalformedOptions() {
+        assertThrows(IllegalArgumentException.class, () -> HeadlessRunner.fromArgs(new String[] {"--frobnicate"}));
+        assertThrows(IllegalArgumentException.class, () -> HeadlessRunner.fromArgs(new String[] {"--epochs"}));
+        assertThrows(IllegalArgumentException.class, () -> HeadlessRunner.fromArgs(new String[] {"--seed", "1", "--out"}));
+        assertThrows(IllegalArgumentException.class, () -> HeadlessRunner.fromArgs(new String[] {"--epochs", "0"}));
+        assertThrows(IllegalArgumentException.class, () -> HeadlessRunner.fromArgs(new String[] {"--threads", "-2"}));
+        assertThrows(IllegalArgumentException.class, () -> HeadlessRunner.fromArgs(new String[] {"--runs", "0"}));
+        assertThrows(IllegalArgumentException.class, () -> HeadlessRunner.fromArgs(new String[] {"--pool", "0"}));
+        assertThrows(IllegalArgumentException.class, () -> HeadlessRunner.fromArgs(new String[] {"--seed", "abc"}));
+        assertThrows(IllegalArgumentException.class, () -> HeadlessRunner.fromArgs(new String[] {"--epochs", "1.5"}));
+        assertThrows(IllegalArgumentException.class, () -> HeadlessRunner.fromArgs(new String[] {"--format", "xml"}));
+        // --headless itself is accepted anywhere
+        HeadlessRunner.fromArgs(new String[] {"--headless", "--seed", "-3", "--headless", "--format", "binary"});
+    }
+
+    @Test
+    void testHeadlessRunnerRunsParsedOptions(@TempDir Path dir) throws IOException {
+        final Path out = dir.resolve("logs");
+        final long epochs = HeadlessRunner.fromArgs(new String[] {"--headless", "--seed", "7", "--epochs", "12",
+            "--out", out.toString(), "--checkpoint", dir.resolve("c.bin").toString()}).run();
+        assertEquals(12, epochs);
+        List<String> rows = Files.readAllLines(out.resolve("evgen0_logs.csv"));
+        assertEquals(13, rows.size());
+        assertTrue(rows.get(12).startsWith("12,"));
+
+        // Resumed run picks up at the epoch it was saved at
+        final Path resumed = dir.resolve("resumed");
+        HeadlessRunner.fromArgs(new String[] {"--epochs", "3", "--out", resumed.toString(),
+            "--resume", dir.resolve("c.bin").toString()}).run();
+        assertTrue(Files.readAllLines(resumed.resolve("evgen0_logs.csv")).get(1).startsWith("13,"));
+
+        assertThrows(IOException.class, () -> HeadlessRunner.fromArgs(new String[] {"--resume", dir.resolve("missing.bin").toString()}).run());
+        assertThrows(IllegalArgumentException.class, () -> HeadlessRunner.fromArgs(new String[] {"--config", dir.resolve("missing.yaml").toString()}).run());
+    }
+}
@@ -1,6 +1,7 @@
 package evgen;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import org.junit.jupiter.api.Test;
 
@@ -32,4 +33,16 @@ public class MapDirectionTest {
             assertEquals(expectedMapDirs[i], mapDirs[i].updateDirection(diffInts[i]));
         }
     }
+
+    @Test
+    void testMapDirectionLookupTables() {
+        for (int i = 0; i < 8; ++i) {
+            assertSame(mapDirsInOrder[i].toUnitVector(), mapDirsInOrder[i].toUnitVector());
+            assertEquals(new Vector2d(MapDirection.dx(i), MapDirection.dy(i)), mapDirsInOrder[i].toUnitVector());
+            for (int diff = 0; diff < 8; ++diff) {
+                assertEquals(mapDirsInOrder[(i + diff) % 8].facing, MapDirection.rotate(i, diff));
+                assertEquals(mapDirsInOrder[(i + diff) % 8], mapDirsInOrder[i].updateDirection(diff));
+            }
+        }
+    }
 }
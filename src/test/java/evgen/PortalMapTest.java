@@ -34,11 +34,12 @@ public class PortalMapTest {
 
     @Test
     void testPortalMapAttemptMove() {
-        PortalMap m = new PortalMap(rng, s, f);
+        PortalMap m = new PortalMap(rng, s, new StatTracker(), f);
         Animal a = mock(Animal.class);
         when(a.getPosition()).thenReturn(new Vector2d(2, 2));
         when(a.getFacing()).thenReturn(MapDirection.NORTH);
         when(a.getID()).thenReturn(1337);
+        when(a.getRng()).thenReturn(rng);
         m.place(a);
 
         // Regular move
@@ -48,22 +49,51 @@ public class PortalMapTest {
         when(a.getPosition()).thenReturn(new Vector2d(2, 4));
         // m.positionChanged(a.getID(), new Vector2d(2, 2), new Vector2d(2, 4));
         assertEquals(new Pair<>(new Vector2d(0, 0), MapDirection.NORTH), m.getMoveTarget(a));
-        verify(a, times(1)).loseEnergy();
+        verify(a, times(1)).drainEnergy();
 
         when(a.getPosition()).thenReturn(new Vector2d(0, 0));
         // m.positionChanged(a.getID(), new Vector2d(2, 4), new Vector2d(0, 0));
         when(a.getFacing()).thenReturn(MapDirection.SOUTHWEST);
         assertEquals(new Pair<>(new Vector2d(0, 2), MapDirection.NORTH), m.getMoveTarget(a));
-        verify(a, times(2)).loseEnergy();
+        verify(a, times(2)).drainEnergy();
 
         when(a.getFacing()).thenReturn(MapDirection.WEST);
         assertEquals(new Pair<>(new Vector2d(3, 3), MapDirection.SOUTHWEST), m.getMoveTarget(a));
-        verify(a, times(3)).loseEnergy();
+        verify(a, times(3)).drainEnergy();
 
         when(a.getPosition()).thenReturn(new Vector2d(4, 4));
         // m.positionChanged(a.getID(), new Vector2d(0, 0), new Vector2d(4, 4));
         when(a.getFacing()).thenReturn(MapDirection.SOUTHEAST);
         assertEquals(new Pair<>(new Vector2d(1, 0), MapDirection.NORTHEAST), m.getMoveTarget(a));
-        verify(a, times(4)).loseEnergy();
+        verify(a, times(4)).drainEnergy();
+    }
+
+    @Test
+    void testPortalMapMoveTableMatchesRules() {
+        final int[][] sizes = {{1, 1}, {2, 3}, {5, 5}};
+        for (final int[] size : sizes) {
+            when(s.getMapWidth()).thenReturn(size[0]);
+            when(s.getMapHeight()).thenReturn(size[1]);
+            PortalMap m = new PortalMap(rng, s, new StatTracker(), f);
+            for (int x = 0; x < size[0]; ++x) {
+                for (int y = 0; y < size[1]; ++y) {
+                    for (int d = 0; d < MapDirection.directionCount; ++d) {
+                        Animal a = mock(Animal.class);
+                        when(a.getX()).thenReturn(x);
+                        when(a.getY()).thenReturn(y);
+                        when(a.getFacing()).thenReturn(MapDirection.fromInt(d));
+                        when(a.getRng()).thenReturn(rng);
+                        final int expected = m.resolveMove(x, y, MapDirection.fromInt(d));
+                        final int target = m.getPackedMoveTarget(a);
+                        if (expected == AbstractWorldMap.PORTAL) {
+                            verify(a, times(1)).drainEnergy();
+                        } else {
+                            verify(a, times(0)).drainEnergy();
+                            assertEquals(expected, target);
+                        }
+                    }
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,71 @@
+package evgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import evgen.lib.SplitMix64;
+
+public class SimulationTest {
+    private static final long rngSeed = 20010911l;
+
+    @Test
+    void testSimulationRunForStopsAtEpochLimit() {
+        StatTracker st = new StatTracker();
+        Simulation simulation = new Simulation(new SplitMix64(rngSeed), new Settings(), st, 0);
+        assertEquals(10, simulation.runFor(10));
+        assertEquals(10, simulation.map.getCurrentEpoch());
+        assertEquals(10, st.getEpoch());
+        assertTrue(st.getAnimalCount() > 0);
+        assertEquals(5, simulation.runFor(5));
+        assertEquals(15, st.getEpoch());
+    }
+
+    @Test
+    void testSimulationRunForStopsOnExtinction(@TempDir Path dir) throws IOException {
+        // No food and too little energy to procreate -- everyone starves within a few epochs
+        final Path config = dir.resolve("starving.yaml");
+        Files.writeString(config, String.join("\n",
+            "map_width: 5", "map_height: 5", "starting_foliage: 0", "daily_foliage_growth: 0",
+            "starting_animals: 3", "starting_energy: 4", "min_procreation_energy: 10", "procreation_energy_loss: 5"));
+        Settings settings = new Settings();
+        assertTrue(settings.loadConfig(config.toString()));
+
+        StatTracker st = new StatTracker();
+        Simulation simulation = new Simulation(new SplitMix64(rngSeed), settings, st, 0);
+        final int epochs = simulation.runFor(1000);
+        assertTrue(epochs <= 5, "ran " + epochs + " epochs");
+        assertEquals(0, st.getAnimalCount());
+        assertEquals(epochs, st.getEpoch());
+        // Nothing left to run
+        assertEquals(0, simulation.runFor(1000));
+    }
+
+    @Test
+    void testSimulationLargeWorldIsSparse(@TempDir Path dir) throws IOException {
+        // Map at the large world's cap, only a handful of its chunks should ever be allocated
+        final Path config = dir.resolve("large.yaml");
+        Files.writeString(config, String.join("\n",
+            "world_size_variant: large", "map_width: 10000", "map_height: 10000",
+            "starting_animals: 500", "starting_foliage: 500", "daily_foliage_growth: 100"));
+        Settings settings = new Settings();
+        assertTrue(settings.loadConfig(config.toString()));
+
+        StatTracker st = new StatTracker();
+        Simulation simulation = new Simulation(new SplitMix64(rngSeed), settings, st, 0);
+        AbstractWorldMap map = (AbstractWorldMap) simulation.map;
+        assertInstanceOf(AbstractSparseFoliageGrower.class, map.foliageGen);
+        ChunkedGridStorage grid = assertInstanceOf(ChunkedGridStorage.class, map.grid);
+        assertEquals(10, simulation.runFor(10));
+        // Every allocated chunk holds an animal or a plant
+        assertTrue(grid.getAllocatedChunkCount() <= grid.getOccupiedCount() + grid.getPlantCount(),
+            "allocated " + grid.getAllocatedChunkCount() + " chunks");
+    }
+}
@@ -0,0 +1,154 @@
+package evgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import evgen.lib.Pair;
+
+public class SparseFoliageGrowerTest {
+    private static final long rngSeed = 20010911l;
+    private static final Settings s = mock(Settings.class);
+    private static final IWorldMap m = mock(GlobeMap.class);
+
+    private Random rng;
+
+    private void setMapSize(int width, int height) {
+        when(s.getMapWidth()).thenReturn(width);
+        when(s.getMapHeight()).thenReturn(height);
+        when(m.getMapBounds()).thenReturn(new Pair<>(new Vector2d(0, 0), new Vector2d(width-1, height-1)));
+    }
+
+    @BeforeEach
+    void setUp() {
+        rng = new Random(rngSeed);
+        setMapSize(5, 5);
+    }
+
+    @Test
+    void testSparseEquatorialGrowerPreferredSpots() {
+        // Same preferred spots as the regular grower, including partially preferred rows
+        final int[][] sizes = {{5, 5}, {7, 10}, {13, 4}, {1, 9}, {20, 11}};
+        for (int[] size : sizes) {
+            setMapSize(size[0], size[1]);
+            EquatorialGrower dense = new EquatorialGrower(rng, s, m);
+            SparseEquatorialGrower sparse = new SparseEquatorialGrower(rng, s, m);
+            for (int x = 0; x < size[0]; ++x) {
+                for (int y = 0; y < size[1]; ++y) {
+                    final Vector2d pos = new Vector2d(x, y);
+                    assertEquals(dense.isPreferred(pos), sparse.isPreferred(pos));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSparseEquatorialGrowerGetPlantCells() {
+        SparseEquatorialGrower g = new SparseEquatorialGrower(rng, s, m);
+        int[] out = new int[30];
+
+        assertEquals(4, g.getPlantCells(4, out));
+        assertEquals(21, g.getFreeSpotsCount());
+        Set<Integer> grown = new HashSet<>();
+        for (int i = 0; i < 4; ++i) {
+            assertTrue(grown.add(out[i]));
+        }
+
+        // Only 21 spots left; all of them get used, each once
+        assertEquals(21, g.getPlantCells(30, out));
+        assertEquals(0, g.getFreeSpotsCount());
+        for (int i = 0; i < 21; ++i) {
+            assertTrue(grown.add(out[i]));
+        }
+        assertEquals(0, g.getPlantCells(3, out));
+        assertEquals(-1, g.getPlantCell());
+
+        g.plantEaten(out[0]);
+        assertEquals(1, g.getPlantCells(3, out));
+    }
+
+    private static void assertCandidatesCoverKinds(AbstractSparseFoliageGrower g, int cellCount) {
+        // Every cell is a candidate of its own kind; regular candidates are never preferred
+        Set<Integer> covered = new HashSet<>();
+        for (final boolean preferred : new boolean[] {true, false}) {
+            for (int i = 0; i < g.getCandidateCount(preferred); ++i) {
+                final int cell = g.candidateCell(preferred, i);
+                if (g.isPreferredCell(cell) == preferred) {
+                    assertTrue(covered.add(cell));
+                }
+            }
+        }
+        assertEquals(cellCount, covered.size());
+        for (int i = 0; i < g.getCandidateCount(false); ++i) {
+            assertTrue(!g.isPreferredCell(g.candidateCell(false, i)));
+        }
+    }
+
+    @Test
+    void testSparseFoliageGrowerCandidateCells() {
+        setMapSize(7, 10);
+        assertCandidatesCoverKinds(new SparseEquatorialGrower(rng, s, m), 70);
+        assertEquals(14, new SparseEquatorialGrower(rng, s, m).getCandidateCount(true));
+
+        SparseToxicCorpsesGrower toxic = new SparseToxicCorpsesGrower(rng, s, m);
+        for (int x = 0; x < 7; ++x) {
+            toxic.animalDiedAt(new Vector2d(x, 3));
+        }
+        assertEquals(7, toxic.getCandidateCount(false));
+        assertCandidatesCoverKinds(toxic, 70);
+    }
+
+    @Test
+    void testSparseToxicCorpsesGrowerAnimalDiedAt() {
+        // Deaths only use the RNG to pick new preferred spots, so both growers must make the same picks
+        ToxicCorpsesGrower dense = new ToxicCorpsesGrower(new Random(rngSeed), s, m);
+        SparseToxicCorpsesGrower sparse = new SparseToxicCorpsesGrower(new Random(rngSeed), s, m);
+        Random deaths = new Random(1);
+        for (int i = 0; i < 500; ++i) {
+            final Vector2d pos = new Vector2d(deaths.nextInt(5), deaths.nextInt(2 + i % 4));
+            dense.animalDiedAt(pos);
+            sparse.animalDiedAt(pos);
+            for (int x = 0; x < 5; ++x) {
+                for (int y = 0; y < 5; ++y) {
+                    assertEquals(dense.isPreferred(new Vector2d(x, y)), sparse.isPreferred(new Vector2d(x, y)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSparseToxicCorpsesGrowerFreeSpots() {
+        SparseToxicCorpsesGrower g = new SparseToxicCorpsesGrower(rng, s, m);
+        for (int x = 0; x < 5; ++x) {
+            g.animalDiedAt(new Vector2d(x, 0));
+            g.animalDiedAt(new Vector2d(x, 1));
+        }
+        assertTrue(!g.isPreferred(new Vector2d(2, 1)) && g.isPreferred(new Vector2d(2, 2)));
+
+        // Regular and preferred spots both fill up, each cell once
+        int[] out = new int[25];
+        Set<Integer> grown = new HashSet<>();
+        while (g.getFreeSpotsCount() > 0) {
+            final int n = g.getPlantCells(25, out);
+            for (int i = 0; i < n; ++i) {
+                assertTrue(grown.add(out[i]));
+            }
+        }
+        assertEquals(25, grown.size());
+        assertEquals(-1, g.getPlantCell());
+
+        // Spot stops being preferred while it has a plant
+        g.animalDiedAt(new Vector2d(2, 2));
+        g.plantEaten(new Vector2d(2, 2));
+        assertEquals(1, g.getFreeSpotsCount());
+        assertEquals(12, g.getPlantCell());
+    }
+}
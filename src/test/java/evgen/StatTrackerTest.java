@@ -0,0 +1,32 @@
+package evgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import evgen.lib.SplitMix64;
+
+public class StatTrackerTest {
+    private static final long rngSeed = 20010911l;
+
+    @Test
+    void testStatTrackerMostPopularGenomeOnceAllDied() {
+        Settings settings = new Settings();
+        SplitMix64 rng = new SplitMix64(rngSeed);
+        StatTracker st = new StatTracker();
+        st.importSettings(settings);
+        AbstractWorldMap m = new GlobeMap(rng, settings, st);
+        Animal a = new Animal(rng.split(), settings, m, st);
+        Animal b = new Animal(rng.split(), settings, m, st);
+        assertTrue(st.getMostPopularGenome() == a.genes.getGenome() || st.getMostPopularGenome() == b.genes.getGenome());
+
+        a.death();
+        assertEquals(b.genes.getGenome(), st.getMostPopularGenome());
+        b.death();
+        // Population died out -- no genome is popular anymore
+        assertNull(st.getMostPopularGenome());
+        assertTrue(st.getTopGenomes().isEmpty());
+    }
+}
@@ -0,0 +1,49 @@
+package evgen.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+public class AsyncTextWriterTest {
+    @Test
+    void testAsyncTextWriterWritesEverythingInOrder() throws IOException {
+        StringWriter out = new StringWriter();
+        // Tiny ring and buffer, so that the producer has to wait for the writer thread
+        AsyncTextWriter w = new AsyncTextWriter(out, 2, 16, 1000);
+        StringBuilder row = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            row.setLength(0);
+            row.append('\n').append(i).append(",row");
+            // Longer than the initial slot length
+            if (i % 100 == 0) {
+                row.append("x".repeat(1000));
+            }
+            w.write(row);
+            expected.append(row);
+        }
+        w.close();
+        assertEquals(expected.toString(), out.toString());
+
+        // Closing again does nothing, writing after close fails
+        w.close();
+        assertThrows(IOException.class, () -> w.write("late"));
+    }
+
+    @Test
+    void testAsyncTextWriterFlushesOnTime() throws IOException, InterruptedException {
+        StringWriter out = new StringWriter();
+        AsyncTextWriter w = new AsyncTextWriter(out, 16, 1 << 16, 10);
+        w.write("header");
+        for (int i = 0; i < 100 && out.toString().isEmpty(); ++i) {
+            Thread.sleep(10);
+        }
+        assertTrue(out.toString().startsWith("header"));
+        w.close();
+    }
+}
@@ -0,0 +1,95 @@
+package evgen.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class FrequencyCounterTest {
+    @Test
+    void testFrequencyCounterIncrementDecrement() {
+        FrequencyCounter<String> c = new FrequencyCounter<>();
+        assertTrue(c.isEmpty());
+        assertNull(c.getMostFrequent());
+        assertEquals(0, c.getHighestCount());
+
+        assertEquals(1, c.increment("a"));
+        assertEquals(1, c.increment("b"));
+        assertEquals(2, c.increment("b"));
+        assertEquals(1, c.increment("c"));
+        assertEquals("b", c.getMostFrequent());
+        assertEquals(2, c.getHighestCount());
+        assertEquals(List.of("b", "a", "c"), c.getTop(5));
+        assertEquals(List.of("b", "a"), c.getTop(2));
+
+        // Ties go to the key which reached the count first
+        assertEquals(2, c.increment("c"));
+        assertEquals(1, c.decrement("b"));
+        assertEquals("c", c.getMostFrequent());
+        assertEquals(List.of("c", "a", "b"), c.getTop(3));
+
+        assertEquals(0, c.decrement("a"));
+        assertEquals(-1, c.decrement("a"));
+        assertEquals(0, c.count("a"));
+        assertEquals(2, c.size());
+        assertEquals(1, c.decrement("c"));
+        assertEquals(0, c.decrement("c"));
+        assertEquals(0, c.decrement("b"));
+        assertTrue(c.isEmpty());
+        assertNull(c.getMostFrequent());
+    }
+
+    @Test
+    void testFrequencyCounterMatchesNaiveCounts() {
+        FrequencyCounter<Integer> c = new FrequencyCounter<>();
+        int[] counts = new int[20];
+        SplitMix64 r = new SplitMix64(7);
+        for (int i = 0; i < 5000; ++i) {
+            final int k = r.nextInt(counts.length);
+            if (counts[k] > 0 && r.nextInt(3) == 0) {
+                --counts[k];
+                c.decrement(k);
+            } else {
+                ++counts[k];
+                c.increment(k);
+            }
+            int max = 0;
+            for (int j = 0; j < counts.length; ++j) {
+                assertEquals(counts[j], c.count(j));
+                max = Math.max(max, counts[j]);
+            }
+            assertEquals(max, c.getHighestCount());
+            assertEquals(max, counts[c.getMostFrequent()]);
+            int prev = Integer.MAX_VALUE;
+            for (final int k2 : c.getTop(counts.length)) {
+                assertTrue(counts[k2] <= prev);
+                prev = counts[k2];
+            }
+        }
+    }
+
+    @Test
+    void testFrequencyCounterPutKeepsOrder() {
+        FrequencyCounter<Integer> c = new FrequencyCounter<>();
+        for (final int k : new int[] {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5}) {
+            c.increment(k);
+        }
+        c.decrement(1);
+
+        FrequencyCounter<Integer> copy = new FrequencyCounter<>();
+        copy.put(8, 2);
+        copy.clear();
+        assertTrue(copy.isEmpty());
+        final List<Integer> top = c.getTop(c.size());
+        for (final int k : top) {
+            copy.put(k, c.count(k));
+        }
+        assertEquals(top, copy.getTop(copy.size()));
+        assertEquals(c.getMostFrequent(), copy.getMostFrequent());
+        // 1 got back to count 1 last, so it comes last of its bucket
+        assertEquals(List.of(5, 3, 4, 9, 2, 6, 1), top);
+    }
+}
@@ -0,0 +1,40 @@
+package evgen.lib;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class IndexSamplerTest {
+    @Test
+    void testIndexSamplerDrawsDistinctIndices() {
+        SplitMix64 r = new SplitMix64(3);
+        for (int n = 1; n < 40; ++n) {
+            for (int k = 0; k <= n; ++k) {
+                final int[] out = IndexSampler.sample(r, n, k);
+                Set<Integer> seen = new HashSet<>();
+                for (int i = 0; i < k; ++i) {
+                    assertTrue(out[i] >= 0 && out[i] < n);
+                    assertTrue(seen.add(out[i]));
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> IndexSampler.sample(r, 3, 4));
+    }
+
+    @Test
+    void testIndexSamplerDependsOnlyOnRng() {
+        // Earlier calls must not influence later ones
+        final int[] first = Arrays.copyOf(IndexSampler.sample(new SplitMix64(5), 100, 10), 10);
+        IndexSampler.sample(new SplitMix64(6), 100, 50);
+        IndexSampler.sample(new SplitMix64(7), 30, 30);
+        assertArrayEquals(first, Arrays.copyOf(IndexSampler.sample(new SplitMix64(5), 100, 10), 10));
+        assertEquals(10, new HashSet<>(Arrays.asList(Arrays.stream(first).boxed().toArray(Integer[]::new))).size());
+    }
+}
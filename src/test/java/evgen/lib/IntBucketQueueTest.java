@@ -0,0 +1,84 @@
+package evgen.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+public class IntBucketQueueTest {
+    @Test
+    void testIntBucketQueueKeys() {
+        IntBucketQueue q = new IntBucketQueue(10);
+        assertTrue(q.isEmpty());
+        assertEquals(-1, q.minKey());
+        assertTrue(q.add(4, 3));
+        assertTrue(q.add(2, 5));
+        assertFalse(q.add(4, 1));
+        assertEquals(3, q.keyOf(4));
+        assertEquals(-1, q.keyOf(7));
+        assertEquals(3, q.minKey());
+
+        q.increment(4);
+        q.increment(4);
+        assertEquals(5, q.keyOf(4));
+        assertEquals(5, q.minKey());
+
+        // Keys may also go below the current minimum
+        assertTrue(q.add(7, 1));
+        assertEquals(1, q.minKey());
+        assertTrue(q.remove(7));
+        assertFalse(q.remove(7));
+        assertEquals(5, q.minKey());
+        assertEquals(2, q.size());
+    }
+
+    @Test
+    void testIntBucketQueuePollRandomMin() {
+        IntBucketQueue q = new IntBucketQueue(100);
+        SplitMix64 r = new SplitMix64(1);
+        for (int i = 0; i < 100; ++i) {
+            q.add(i, i % 4);
+        }
+        for (int i = 0; i < 100; ++i) {
+            final int key = q.minKey();
+            final int v = q.pollRandomMin(r);
+            assertEquals(i / 25, key);
+            assertEquals(key, v % 4);
+            assertFalse(q.contains(v));
+        }
+        assertTrue(q.isEmpty());
+        assertEquals(-1, q.pollRandomMin(r));
+    }
+
+    @Test
+    void testIntBucketQueueWriteRead() throws IOException {
+        IntBucketQueue q = new IntBucketQueue(30);
+        for (int i = 0; i < 30; ++i) {
+            q.add(i, i % 4);
+        }
+        q.remove(8);
+        q.increment(4);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        q.writeTo(new DataOutputStream(bytes));
+
+        IntBucketQueue restored = new IntBucketQueue(30);
+        restored.add(0, 7);
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(q.size(), restored.size());
+        assertEquals(1, restored.keyOf(4));
+        assertFalse(restored.contains(8));
+        SplitMix64 r1 = new SplitMix64(5);
+        SplitMix64 r2 = new SplitMix64(5);
+        while (!q.isEmpty()) {
+            assertEquals(q.pollRandomMin(r1), restored.pollRandomMin(r2));
+        }
+        assertTrue(restored.isEmpty());
+    }
+}
@@ -0,0 +1,50 @@
+package evgen.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class IntIntHashMapTest {
+    @Test
+    void testIntIntHashMapBasics() {
+        IntIntHashMap m = new IntIntHashMap();
+        assertTrue(m.isEmpty());
+        m.put(7, 1);
+        m.put(100000000, 2);
+        m.put(7, 3);
+        assertEquals(2, m.size());
+        assertEquals(3, m.get(7, -1));
+        assertEquals(2, m.get(100000000, -1));
+        assertEquals(-1, m.get(8, -1));
+        assertTrue(m.remove(7));
+        assertFalse(m.remove(7));
+        assertFalse(m.containsKey(7));
+        assertEquals(1, m.size());
+    }
+
+    @Test
+    void testIntIntHashMapAgainstHashMap() {
+        // Lots of removals in a small key range exercise the probe chain repair
+        IntIntHashMap m = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        SplitMix64 r = new SplitMix64(3);
+        for (int i = 0; i < 20000; ++i) {
+            final int key = r.nextInt(500);
+            if (r.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, m.remove(key));
+            } else {
+                expected.put(key, i);
+                m.put(key, i);
+            }
+            assertEquals(expected.size(), m.size());
+        }
+        for (int key = 0; key < 500; ++key) {
+            assertEquals((int) expected.getOrDefault(key, -1), m.get(key, -1));
+        }
+    }
+}
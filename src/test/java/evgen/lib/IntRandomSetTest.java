@@ -0,0 +1,81 @@
+package evgen.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class IntRandomSetTest {
+    @Test
+    void testIntRandomSetAddRemove() {
+        IntRandomSet s = new IntRandomSet(10);
+        assertTrue(s.isEmpty());
+        assertTrue(s.add(3));
+        assertTrue(s.add(7));
+        assertTrue(s.add(0));
+        assertFalse(s.add(7));
+        assertEquals(3, s.size());
+        assertTrue(s.contains(7));
+        assertFalse(s.contains(5));
+
+        // Last element fills the hole
+        assertTrue(s.remove(3));
+        assertFalse(s.remove(3));
+        assertEquals(0, s.get(0));
+        assertEquals(7, s.get(1));
+        assertEquals(-1, s.removeAt(2));
+        assertEquals(7, s.removeAt(1));
+        assertEquals(1, s.size());
+    }
+
+    @Test
+    void testIntRandomSetPollRandom() {
+        IntRandomSet s = new IntRandomSet(50);
+        SplitMix64 r = new SplitMix64(1);
+        for (int i = 0; i < 50; i += 2) {
+            s.add(i);
+        }
+        Set<Integer> polled = new HashSet<>();
+        while (!s.isEmpty()) {
+            final int v = s.pollRandom(r);
+            assertEquals(0, v % 2);
+            assertFalse(s.contains(v));
+            assertTrue(polled.add(v));
+        }
+        assertEquals(25, polled.size());
+        assertEquals(-1, s.pollRandom(r));
+    }
+
+    @Test
+    void testIntRandomSetWriteRead() throws IOException {
+        IntRandomSet s = new IntRandomSet(50);
+        for (int i = 0; i < 50; i += 3) {
+            s.add(i);
+        }
+        s.remove(9);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        s.writeTo(new DataOutputStream(bytes));
+
+        IntRandomSet restored = new IntRandomSet(50);
+        restored.add(1);
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(s.size(), restored.size());
+        assertFalse(restored.contains(1));
+        // Same order, so same random draws
+        SplitMix64 r1 = new SplitMix64(5);
+        SplitMix64 r2 = new SplitMix64(5);
+        while (!s.isEmpty()) {
+            assertEquals(s.pollRandom(r1), restored.pollRandom(r2));
+        }
+        assertTrue(restored.isEmpty());
+    }
+}